@@ -0,0 +1,97 @@
+//The arrival rate of a generated customer stream over the day, in customers per hour for every minute of the day.
+//A profile is written as type:values on the command line (--generate=...):
+//  constant:R               R customers per hour all day (a homogeneous Poisson stream)
+//  hourly:R0,R1,...,R23     R0 customers per hour from 00:00, R1 from 01:00 and so on, missing hours have no arrivals
+//  peaks:BASE,LUNCH,DINNER  BASE customers per hour plus a lunch peak of LUNCH around 12:30 and a dinner peak of DINNER around 19:30
+class ArrivalProfile {
+    private static final int MINUTES_PER_DAY = SimulationTime.MINUTES_PER_DAY;
+    private static final int LUNCH_PEAK = 12 * 60 + 30;
+    private static final int DINNER_PEAK = 19 * 60 + 30;
+    private static final double LUNCH_WIDTH = 45; //standard deviation of the peaks in minutes
+    private static final double DINNER_WIDTH = 60;
+
+    //Constructor --------------------------------------------------------------------
+    private final String description;
+    private final double[] minuteRates; //customers per minute for every minute of the day
+    private final double maxRate;
+
+    private ArrivalProfile(String description, double[] hourlyRatesPerMinute) {
+        this.description = description;
+        this.minuteRates = hourlyRatesPerMinute;
+        double max = 0;
+        for (double rate : minuteRates) {
+            max = Math.max(max, rate);
+        }
+        this.maxRate = max;
+    }
+
+    //This method reads a profile like constant:30, it throws an IllegalArgumentException for an unknown profile
+    public static ArrivalProfile parse(String value) {
+        String[] profile = value.split(":", 2);
+        double[] values = (profile.length > 1) ? readValues(profile[1]) : new double[0];
+        double[] rates = new double[MINUTES_PER_DAY];
+        switch (profile[0]) {
+            case "constant" -> {
+                requireValues(value, values, 1);
+                for (int minute = 0; minute < MINUTES_PER_DAY; minute++) {
+                    rates[minute] = values[0] / 60;
+                }
+            }
+            case "hourly" -> {
+                requireValues(value, values, 1);
+                for (int minute = 0; minute < MINUTES_PER_DAY && minute / 60 < values.length; minute++) {
+                    rates[minute] = values[minute / 60] / 60;
+                }
+            }
+            case "peaks" -> {
+                requireValues(value, values, 3);
+                for (int minute = 0; minute < MINUTES_PER_DAY; minute++) {
+                    rates[minute] = (values[0] + values[1] * peak(minute, LUNCH_PEAK, LUNCH_WIDTH) + values[2] * peak(minute, DINNER_PEAK, DINNER_WIDTH)) / 60;
+                }
+            }
+            default ->
+                throw new IllegalArgumentException("Unknown arrival profile " + value);
+        }
+        return new ArrivalProfile(value, rates);
+    }
+
+    //Helper methods --------------------------------------------------------------
+    private static double[] readValues(String values) {
+        String[] parts = values.split(",");
+        double[] result = new double[parts.length];
+        for (int i = 0; i < parts.length; i++) {
+            result[i] = Double.parseDouble(parts[i]);
+            if (result[i] < 0) {
+                throw new IllegalArgumentException("Negative arrival rate " + parts[i]);
+            }
+        }
+        return result;
+    }
+
+    private static void requireValues(String profile, double[] values, int count) {
+        if (values.length < count) {
+            throw new IllegalArgumentException("Arrival profile " + profile + " needs " + count + " rate(s)");
+        }
+    }
+
+    //A bell curve with height 1 at the center
+    private static double peak(int minute, int center, double width) {
+        double distance = (minute - center) / width;
+        return Math.exp(-0.5 * distance * distance);
+    }
+
+    //This method returns the arrival rate (customers per minute) at a minute counted from midnight, the profile repeats every day
+    public double rateAt(double minute) {
+        return minuteRates[(int) (minute % MINUTES_PER_DAY)];
+    }
+
+    //getters --------------------------------------------------------------------
+    public double getMaxRate() {
+        return maxRate;
+    }
+
+    @Override
+    public String toString() {
+        return description;
+    }
+}
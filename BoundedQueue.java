@@ -1,87 +1,215 @@
-
-import java.util.PriorityQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Condition;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
 
+//This class is the pool of tables. add() seats an item at the first free table and remove(tableIndex) frees exactly that table.
+//The free tables are kept in bitsets, a word per 64 tables plus a summary word that marks the words with a free table,
+//so finding a free table is two Long.numberOfTrailingZeros calls instead of a scan.
+//The tables can be split into sections with their own lock, a thread seats at its own section first, so seating is not one global lock.
+//The free tables are counted with an atomic counter, a customer takes a table with one compareAndSet, only a customer that
+//finds no free table takes the waiting lock and parks until a table is freed.
+//With one section the lowest free table is seated, like the DiscreteEventEngine does. With more sections the lowest free table
+//of the thread's own section is seated, so the table numbers of a threaded run can differ from the event engine
+//(how many customers are seated and when does not).
 class BoundedQueue<T> {
+    private static final int TABLES_PER_SECTION = 64 * 64; //what one summary word can cover
+
+    //A group of neighbouring tables with its own lock
+    private static final class Section {
+        private final int firstTable;
+        private final long[] freeWords; //bit i of word w is set when table firstTable + w * 64 + i is free
+        private long freeSummary; //bit w is set when freeWords[w] has a free table
+        private final Lock lock = new ReentrantLock();
+
+        Section(int firstTable, int tables) {
+            this.firstTable = firstTable;
+            freeWords = new long[(tables + 63) / 64];
+            for (int i = 0; i < tables; i++) {
+                freeWords[i / 64] |= 1L << (i % 64);
+            }
+            for (int w = 0; w < freeWords.length; w++) {
+                freeSummary |= 1L << w;
+            }
+        }
+
+        //returns the index of the first free table in the section and marks it occupied, or -1 if the section is full
+        int seat() {
+            lock.lock();
+            try {
+                if (freeSummary == 0) {
+                    return -1;
+                }
+                int word = Long.numberOfTrailingZeros(freeSummary);
+                int bit = Long.numberOfTrailingZeros(freeWords[word]);
+                freeWords[word] &= ~(1L << bit);
+                if (freeWords[word] == 0) {
+                    freeSummary &= ~(1L << word);
+                }
+                return firstTable + word * 64 + bit;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        void vacate(int tableIndex) {
+            lock.lock();
+            try {
+                int offset = tableIndex - firstTable;
+                freeWords[offset / 64] |= 1L << (offset % 64);
+                freeSummary |= 1L << (offset / 64);
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    //Constructor --------------------------------------------------------------------
     private final int maxSize;
-    private final PriorityQueue<T> queue = new PriorityQueue<>();
-    private final int[] indices;
-    private final CustomSemaphore consumingSemaphore;
-    private final CustomSemaphore producingSemaphore;
+    private final Object[] occupants;
+    private final Section[] sections;
+    private final int sectionSize;
+    private final AtomicInteger freeTables; //tables that are free and not yet promised to a customer
 
     public BoundedQueue(int maxSize) {
+        this(maxSize, 1);
+    }
+
+    public BoundedQueue(int maxSize, int sectionCount) {
         this.maxSize = maxSize;
-        producingSemaphore = new CustomSemaphore(maxSize);
-        consumingSemaphore = new CustomSemaphore(0);
-        indices = new int[maxSize];
+        occupants = new Object[maxSize];
+        freeTables = new AtomicInteger(maxSize);
+
+        //a section can not be bigger than what one summary word covers
+        int count = Math.max(sectionCount, (maxSize + TABLES_PER_SECTION - 1) / TABLES_PER_SECTION);
+        count = Math.max(1, Math.min(count, maxSize));
+        sectionSize = Math.max(1, (maxSize + count - 1) / count);
+        sections = new Section[(maxSize + sectionSize - 1) / sectionSize];
+        for (int i = 0; i < sections.length; i++) {
+            int firstTable = i * sectionSize;
+            sections[i] = new Section(firstTable, Math.min(sectionSize, maxSize - firstTable));
+        }
     }
 
     //Global variables --------------------------------------------------------------
-    private final Lock lock = new ReentrantLock();
+    private final AtomicInteger size = new AtomicInteger();
+    private final AtomicInteger waiting = new AtomicInteger(); //customers parked on tableFreed
+    private final Lock waitingLock = new ReentrantLock();
+    private final Condition tableFreed = waitingLock.newCondition();
 
+    //add method --------------------------------------------------------------
+    //This method waits for a free table, seats the item there and returns the table index (starting at 0)
     public int add(T item) {
         int index = -1;
         try {
-            producingSemaphore.acquire(); // Wait for space in the queue
-            lock.lock(); // Lock the queue
-            try {
-                index = findFirstEmptyIndex();
-                indices[index] = 1;
-                queue.offer(item); // Add the item to the queue
-            } finally {
-                lock.unlock(); // Unlock the queue
+            takeTable(); // Wait for a free table
+            //the table taken from the counter is free in one of the sections, start at the section of this thread and move on to the next ones.
+            //A table can be freed in a section that was already passed while another customer takes the one ahead, so keep going around
+            int home = (int) (Thread.currentThread().getId() % sections.length);
+            for (int i = 0; index == -1; i++) {
+                index = sections[(home + i) % sections.length].seat();
             }
-            consumingSemaphore.release(); // Signal that an item is available to consume
+            occupants[index] = item;
+            size.incrementAndGet();
+        } catch (InterruptedException e) {
+            //no table was taken, so no table is seated and the caller keeps the interrupt
+            System.err.println("Exception in queue add method: interrupted");
+            Thread.currentThread().interrupt();
         } catch (Exception e) {
             System.err.println("Exception in queue add method: " + e.getMessage());
         }
         return index;
     }
 
+    //remove method --------------------------------------------------------------
+    //This method frees the table and returns the item that was seated there
     public Object remove(int tableIndex) {
         Object item = null;
         try {
-            consumingSemaphore.acquire(); // Wait for an item to be available
-            lock.lock(); // Lock the queue
-            try {
-                item = queue.poll(); // Remove and return the highest-priority item
-                indices[tableIndex] = 0;
-            } finally {
-                lock.unlock(); // Unlock the queue
+            item = occupants[tableIndex];
+            occupants[tableIndex] = null;
+            size.decrementAndGet();
+            sections[tableIndex / sectionSize].vacate(tableIndex);
+            freeTables.incrementAndGet(); // Signal that there is a free table
+            if (waiting.get() > 0) {
+                signalWaiting();
             }
-            producingSemaphore.release(); // Signal that there is space in the queue
         } catch (Exception e) {
             System.err.println("Exception in queue remove method: " + e.getMessage());
         }
         return item;
     }
 
+    //Helper methods --------------------------------------------------------------
+    //takes a free table from the counter, without a lock as long as there is one
+    private boolean tryTakeTable() {
+        int free = freeTables.get();
+        while (free > 0) {
+            if (freeTables.compareAndSet(free, free - 1)) {
+                return true;
+            }
+            free = freeTables.get();
+        }
+        return false;
+    }
 
-    private int findFirstEmptyIndex() {
-        for (int i = 0; i < indices.length; i++) {
-            if (indices[i] == 0) {
-                return i;
+    //waits until a table can be taken. The waiting count is raised before the last check,
+    //so a remove that frees a table after that check sees the waiting customer and signals him
+    private void takeTable() throws InterruptedException {
+        if (tryTakeTable()) {
+            return;
+        }
+        waitingLock.lock();
+        try {
+            waiting.incrementAndGet();
+            try {
+                while (!tryTakeTable()) {
+                    tableFreed.await();
+                }
+            } catch (InterruptedException e) {
+                //the signal may have been meant for this customer, pass it on
+                if (freeTables.get() > 0) {
+                    tableFreed.signal();
+                }
+                throw e;
+            } finally {
+                waiting.decrementAndGet();
             }
+        } finally {
+            waitingLock.unlock();
+        }
+    }
+
+    private void signalWaiting() {
+        waitingLock.lock();
+        try {
+            tableFreed.signal();
+        } finally {
+            waitingLock.unlock();
         }
-        return -1;
     }
 
     //getters --------------------------------------------------------------------
     public boolean isFull() {
-        return queue.size() == maxSize;
+        return size.get() == maxSize;
     }
 
     public boolean isEmpty() {
-        return queue.isEmpty();
+        return size.get() == 0;
     }
 
     public int size() {
-        return queue.size();
+        return size.get();
     }
 
     @Override
     public String toString() {
-        return queue.toString();
+        StringBuilder sb = new StringBuilder();
+        for (Object item : occupants) {
+            if (item != null) {
+                sb.append(item).append(" ");
+            }
+        }
+        return sb.toString();
     }
 }
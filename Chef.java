@@ -1,74 +1,66 @@
 
-class Chef extends Thread {
+class Chef implements Runnable {
 
     //Constructor --------------------------------------------------------------------
     private final int id;
-    private final CircularBuffer<Order> orderBuffer;
+    private final OrderQueue orderBuffer;
     private final CircularBuffer<Order> readyOrders;
+    private final Order[] batch; //reused for every cook cycle, holds one order when batching is off
+    private final double batchExtraCost;
+    private final EventLog log;
+    private final SimulationClock clock;
 
-    public Chef(int id, CircularBuffer<Order> orderBuffer, CircularBuffer<Order> readyOrders) {
+    public Chef(int id, OrderQueue orderBuffer, CircularBuffer<Order> readyOrders, SimulationOptions options, EventLog log, SimulationClock clock) {
         this.id = id;
         this.orderBuffer = orderBuffer;
         this.readyOrders = readyOrders;
+        this.batch = new Order[options.batchSize];
+        this.batchExtraCost = options.batchExtraCost;
+        this.log = log;
+        this.clock = clock;
     }
 
-    //Global variables --------------------------------------------------------------
-    static CustomSemaphore mutex = new CustomSemaphore(1);
-    boolean endShift = false;
-
     //Thread run method -------------------------------------------------------------
     /*
     Steps:
-    1. The loop continues until either `endShift` is true or the `orderBuffer` is empty.
-    - This ensures that the Chef works until the end of their shift or until all orders have been processed.
-
-    2. Acquire the `mutex` lock to ensure mutual exclusion when accessing the shared `orderBuffer`.
-    - This prevents other threads from modifying the `orderBuffer` concurrently, ensuring thread safety.
-
-    3. Check if the `orderBuffer` is empty:
-    - If it is empty, release the `mutex` and continue to the next iteration of the loop (waiting for new orders).
+    1. Remove the next order from the `orderBuffer`, the queue decides which order comes next (see SchedulingPolicy).
+    - With batch cooking the chef also takes up to batchSize - 1 more pending orders of the same meal in the same operation.
+    - The buffer does its own concurrency control, so every chef dequeues in parallel without a shared mutex.
+    - `remove()` waits while the buffer is empty and returns null once the shift has ended and all orders are processed, which ends the loop.
 
-    4. If the buffer is not empty, remove an order from the `orderBuffer` and store it in `orderMeal`.
-    - The Chef retrieves an order to prepare, and the order’s details are logged.
+    2. Mark the orders as started, so the customers know which chef is preparing the meal.
 
-    5. After releasing the mutex, simulate the time taken to prepare the meal by calling `Thread.sleep()` with the meal’s preparation time (in minutes).
-    - This models the time it takes the Chef to cook the meal.
+    3. Simulate the time taken to prepare the meals by sleeping on the simulation clock for the batch's preparation time (in minutes).
+    - This models the time it takes the Chef to cook the meals, see batchCookTime().
 
-    6. Once the meal is prepared, log the completion, and mark the order as ready by calling `orderMeal.markOrderReady(this.id)`.
+    4. Once the meals are prepared, log the completion, mark the orders as ready and hand them to the waiters through `readyOrders`.
     - This notifies that the meal is ready for the customer.
-
-    7. In the `finally` block, check if the `mutex` lock has been acquired and ensure it is released if necessary, avoiding a deadlock.
      */
     @Override
     public void run() {
-        while (!endShift || !orderBuffer.isEmpty()) { //Continue until the end of the shift or all orders are processed
+        while (true) {
             try {
-                mutex.acquire(); 
-                try {
-                    //retrieve order from buffer
-                    Order orderMeal = (Order) orderBuffer.remove();
-                    if (orderMeal == null) {
-                        mutex.release();
-                        break;
-                    }
-
-                    System.out.println("Chef " + id + " is preparing " + orderMeal.getMealName() + " for Customer " + orderMeal.getCustomerId());
-                    orderMeal.markOrderStart(this.id);
+                //retrieve the orders from buffer
+                int count = orderBuffer.removeBatch(batch);
+                if (count == 0) { //the shift has ended and all orders are processed
+                    break;
+                }
 
-                    mutex.release();
+                for (int i = 0; i < count; i++) {
+                    log.log(LogEvent.CHEF_PREPARING, id, batch[i].getCustomerId(), batch[i].getMealName());
+                    batch[i].setBatch(count, i);
+                    batch[i].markOrderStart(this.id);
+                }
 
-                    //simulate meal preparation time
-                    Thread.sleep((long) (1000 * orderMeal.getMealTime() * 60 * 0.1));
-                    System.out.println("Chef " + id + " has prepared " + orderMeal.getMealName() + " for Customer " + orderMeal.getCustomerId());
+                //simulate meal preparation time
+                clock.sleep(batchCookTime(batch[0].getMealTime(), count, batchExtraCost));
 
-                    //mark order as ready and notify customer
-                    orderMeal.markOrderReady();
-                    readyOrders.add(orderMeal);
-                } finally {
-                    //Ensure mutex is released in case of exception
-                    if (mutex.getCurrentPermits() == 0) {
-                        mutex.release();
-                    }
+                //mark orders as ready and notify customers
+                for (int i = 0; i < count; i++) {
+                    log.log(LogEvent.CHEF_PREPARED, id, batch[i].getCustomerId(), batch[i].getMealName());
+                    batch[i].markOrderReady();
+                    readyOrders.add(batch[i]);
+                    batch[i] = null;
                 }
             } catch (Exception e) {
                 System.err.println("Exception in run method: " + e.getMessage());
@@ -78,14 +70,15 @@ class Chef extends Thread {
     }
 
     //Helper methods --------------------------------------------------------------
+    //This method is used to calculate the minutes needed to cook `count` identical meals together,
+    //every meal after the first adds `extraCost` of the meal time (0 cooks any batch in the time of one meal)
+    public static int batchCookTime(int mealTime, int count, double extraCost) {
+        return (int) Math.round(mealTime * (1 + extraCost * (count - 1)));
+    }
+
     //This method is used to end the shift of the chef when all the customers have been served
     public void endShift() {
-        System.out.println("Chef " + id + " has ended the shift");
-        endShift = true;
+        log.log(LogEvent.CHEF_SHIFT_ENDED, id, 0, null);
         orderBuffer.endShift();
     }
-
-    static void resetSemaphore() {
-        mutex = new CustomSemaphore(1);
-    }
 }
@@ -1,88 +1,243 @@
-
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Condition;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
 
+//This class is a lock-free bounded ring buffer for many producers and many consumers.
+//Every slot has a sequence number that tells whether the slot is free for the producer at position `head`
+//or holds an item for the consumer at position `tail`, so add and remove only need one CAS on `head` or `tail`.
+//Threads only fall back to the lock and conditions when the buffer is empty (consumers) or full (producers).
 class CircularBuffer<T> {
+    private static final VarHandle SEQUENCE = MethodHandles.arrayElementVarHandle(long[].class);
+    private static final VarHandle HEAD;
+    private static final VarHandle TAIL;
+    private static final int SPIN_TRIES = 64; //number of retries before a thread blocks on an empty or full buffer
+
+    static {
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.lookup();
+            HEAD = lookup.findVarHandle(CircularBuffer.class, "head", long.class);
+            TAIL = lookup.findVarHandle(CircularBuffer.class, "tail", long.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
     private final int maxSize;
     private final Object[] buffer;
-    private final CustomSemaphore consumingSemaphore;
-    private final CustomSemaphore producingSemaphore;
+    private final long[] sequences;
     private volatile boolean endShift = false;
 
+    //A ring of one slot can not tell a published slot (sequence position + 1) from a slot that was just handed back to the
+    //producers (position + maxSize), a producer would overwrite the unread item, so the ring has at least two slots
     public CircularBuffer(int maxSize) {
+        maxSize = Math.max(2, maxSize);
         this.maxSize = maxSize;
         buffer = new Object[maxSize];
-        producingSemaphore = new CustomSemaphore(maxSize);
-        consumingSemaphore = new CustomSemaphore(0);
+        sequences = new long[maxSize];
+        for (int i = 0; i < maxSize; i++) {
+            sequences[i] = i;
+        }
     }
 
     //Global variables --------------------------------------------------------------
-    private int head = 0;
-    private int tail = 0;
-    private int size = 0;
+    private volatile long head = 0; //next position to write
+    private volatile long tail = 0; //next position to read
 
+    //only used to park threads while the buffer is empty or full
     private final Lock lock = new ReentrantLock();
+    private final Condition notEmpty = lock.newCondition();
+    private final Condition notFull = lock.newCondition();
+    private final AtomicInteger waitingConsumers = new AtomicInteger();
+    private final AtomicInteger waitingProducers = new AtomicInteger();
 
-  
+    //add method --------------------------------------------------------------
+    //This method adds an item, it waits while the buffer is full and drops the item if the shift has ended
     public void add(T item) {
         try {
-            producingSemaphore.acquire();
-            lock.lock();
-            try {
+            for (int i = 0; i < SPIN_TRIES; i++) {
                 if (endShift) {
                     return;
                 }
-                buffer[head] = item;
-                head = (head + 1) % maxSize;
-                size++;
+                if (offer(item)) {
+                    return;
+                }
+                Thread.onSpinWait();
+            }
+
+            lock.lock();
+            waitingProducers.incrementAndGet();
+            try {
+                while (!endShift && !offer(item)) {
+                    notFull.await();
+                }
             } finally {
+                waitingProducers.decrementAndGet();
                 lock.unlock();
             }
-            consumingSemaphore.release();
+        } catch (InterruptedException e) {
+            System.err.println("Exception in add method: interrupted");
+            Thread.currentThread().interrupt();
         } catch (Exception e) {
             System.err.println("Exception in add method: " + e.getMessage());
         }
-
     }
 
+    //remove method --------------------------------------------------------------
+    //This method removes the oldest item, it waits while the buffer is empty and returns null once the shift has ended and the buffer is drained
     public Object remove() {
         Object item = null;
         try {
-            consumingSemaphore.acquire();
+            for (int i = 0; i < SPIN_TRIES; i++) {
+                item = poll();
+                if (item != null || endShift) {
+                    return (item != null) ? item : poll();
+                }
+                Thread.onSpinWait();
+            }
+
             lock.lock();
+            waitingConsumers.incrementAndGet();
             try {
-                if (size > 0) {
-                    item = buffer[tail];
-                    tail = (tail + 1) % maxSize;
-                    size--;
+                while ((item = poll()) == null && !endShift) {
+                    notEmpty.await();
                 }
             } finally {
+                waitingConsumers.decrementAndGet();
                 lock.unlock();
             }
-            producingSemaphore.release();
+        } catch (InterruptedException e) {
+            System.err.println("Exception in remove method: interrupted");
+            Thread.currentThread().interrupt();
         } catch (Exception e) {
             System.err.println("Exception in remove method: " + e.getMessage());
-
         }
         return item;
     }
 
-    // Method to end the shift and release semaphores
-    // the remove method will return null if the buffer is empty and the thread will exit when receiving a null value
+    //This method waits for the oldest item like remove() and then takes up to batch.length - 1 more items that are already published,
+    //returns the number of items put in `batch` or 0 once the shift has ended and the buffer is drained
+    public int removeBatch(Object[] batch) {
+        batch[0] = remove();
+        if (batch[0] == null) {
+            return 0;
+        }
+        return 1 + pollBatch(batch, 1);
+    }
+
+    //Method to end the shift and wake up every waiting thread
+    // the remove method will return null once the buffer is empty and the thread will exit when receiving a null value
     // the add method will not add any new items to the buffer if the shift has ended
     public void endShift() {
         endShift = true;
-        consumingSemaphore.release();
-        producingSemaphore.release(); 
+        lock.lock();
+        try {
+            notEmpty.signalAll();
+            notFull.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    //Non-blocking operations -------------------------------------------------------
+    //This method tries to claim the slot at `head` and returns false if the buffer is full
+    public boolean offer(T item) {
+        long position = head;
+        while (true) {
+            int index = (int) (position % maxSize);
+            long sequence = (long) SEQUENCE.getVolatile(sequences, index);
+            long difference = sequence - position;
+            if (difference == 0) {
+                if (HEAD.compareAndSet(this, position, position + 1)) {
+                    buffer[index] = item;
+                    SEQUENCE.setVolatile(sequences, index, position + 1); //publish the item to the consumers
+                    if (waitingConsumers.get() > 0) {
+                        signal(notEmpty);
+                    }
+                    return true;
+                }
+                position = head;
+            } else if (difference < 0) {
+                return false; //the slot still holds an item from the previous round
+            } else {
+                position = head;
+            }
+        }
+    }
+
+    //This method tries to take the item at `tail` and returns null if the buffer is empty
+    public Object poll() {
+        long position = tail;
+        while (true) {
+            int index = (int) (position % maxSize);
+            long sequence = (long) SEQUENCE.getVolatile(sequences, index);
+            long difference = sequence - (position + 1);
+            if (difference == 0) {
+                if (TAIL.compareAndSet(this, position, position + 1)) {
+                    Object item = buffer[index];
+                    buffer[index] = null;
+                    SEQUENCE.setVolatile(sequences, index, position + maxSize); //hand the slot back to the producers
+                    if (waitingProducers.get() > 0) {
+                        signal(notFull);
+                    }
+                    return item;
+                }
+                position = tail;
+            } else if (difference < 0) {
+                return null; //nothing has been published at this position yet
+            } else {
+                position = tail;
+            }
+        }
+    }
+
+    //This method takes the published items at `tail` (at most batch.length - offset) with one CAS and returns how many it took.
+    //Only the run of published slots right after `tail` is counted, so every claimed slot already holds its item.
+    public int pollBatch(Object[] batch, int offset) {
+        int max = batch.length - offset;
+        while (max > 0) {
+            long position = tail;
+            int count = 0;
+            while (count < max && (long) SEQUENCE.getVolatile(sequences, (int) ((position + count) % maxSize)) == position + count + 1) {
+                count++;
+            }
+            if (count == 0) {
+                return 0;
+            }
+            if (TAIL.compareAndSet(this, position, position + count)) {
+                for (int i = 0; i < count; i++) {
+                    int index = (int) ((position + i) % maxSize);
+                    batch[offset + i] = buffer[index];
+                    buffer[index] = null;
+                    SEQUENCE.setVolatile(sequences, index, position + i + maxSize);
+                }
+                if (waitingProducers.get() > 0) {
+                    signal(notFull);
+                }
+                return count;
+            }
+        }
+        return 0;
+    }
+
+    private void signal(Condition condition) {
+        lock.lock();
+        try {
+            condition.signal();
+        } finally {
+            lock.unlock();
+        }
     }
 
     //getters --------------------------------------------------------------------
     public boolean isFull() {
-        return size == maxSize;
+        return head - tail >= maxSize;
     }
 
     public boolean isEmpty() {
-        return size == 0;
+        return head - tail <= 0;
     }
 
     @Override
@@ -14,12 +14,14 @@ class CustomSemaphore {
     }
 
     //Global variables --------------------------------------------------------------
+    //A ReentrantLock and Condition (not synchronized/wait) so a virtual thread blocked here unmounts instead of pinning its carrier thread
     private final Lock lock = new ReentrantLock();
     private final Condition condition = lock.newCondition();
 
     //acquire method --------------------------------------------------------------
-    //This method is used to acquire a permit from the semaphore
-    public void acquire() {
+    //This method is used to acquire a permit from the semaphore,
+    //a thread that is interrupted while it waits leaves without a permit and gets the InterruptedException
+    public void acquire() throws InterruptedException {
         //thread will lock the lock when it enters the method
         lock.lock();
         try {
@@ -29,8 +31,6 @@ class CustomSemaphore {
             }
             //decrement the number of permits when there is a permit available
             permits--;
-        } catch (InterruptedException e) {
-            System.err.println("InterruptedException in acquire method: " + e.getMessage());
         } finally {
             lock.unlock();
         }
@@ -53,6 +53,11 @@ class CustomSemaphore {
 
     //getters --------------------------------------------------------------------
     public int getCurrentPermits() {
-        return permits;
+        lock.lock();
+        try {
+            return permits;
+        } finally {
+            lock.unlock();
+        }
     }
 }
@@ -1,19 +1,17 @@
 
-import java.time.LocalTime;
-import java.time.format.DateTimeFormatter;
-import java.util.HashMap;
-
 //This class is a wrapper class, which stores the data of a customer, including the customer ID, chef ID, waiter ID, events, order, and table index.
+//The events are a compact timeline (see CustomerEvent) with the minute of each event instead of a map of LocalTime objects.
 class CustomerData {
+    private static final String NEW_LINE = System.lineSeparator();
 
     private final int customerId;
     private final int chefId;
     private final int waiterId;
-    private final HashMap<String, LocalTime> events;
+    private final int[] events;
     private final Order order;
     private final int tableIndex;
 
-    public CustomerData(int customerId, int chefId, int waiterId, HashMap<String, LocalTime> events, Order order, int tableIndex) {
+    public CustomerData(int customerId, int chefId, int waiterId, int[] events, Order order, int tableIndex) {
         this.customerId = customerId;
         this.chefId = chefId;
         this.waiterId = waiterId;
@@ -38,52 +36,68 @@ class CustomerData {
         return order;
     }
 
-    public HashMap<String, LocalTime> getEvents() {
-        return events;
+    //This method returns the minute of the event, or CustomerEvent.NOT_SET if it did not happen
+    public long getTime(CustomerEvent event) {
+        return events[event.ordinal()];
+    }
+
+    public boolean hasTime(CustomerEvent event) {
+        return events[event.ordinal()] != CustomerEvent.NOT_SET;
     }
 
     @Override
     public String toString() {
-        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("HH:mm");
         StringBuilder events = new StringBuilder();
+        appendTo(events);
+        return events.toString();
+    }
+
+    //This method appends the event lines of the customer to the given builder, the ResultWriter reuses one builder for all customers
+    public void appendTo(StringBuilder events) {
+        String mealName = this.order.getMealName();
 
-        if (this.events.containsKey("Arrival")) {
-            events.append(String.format("[%s] Customer %d arrives.%n",
-                    this.events.get("Arrival").format(formatter), this.customerId));
+        if (hasTime(CustomerEvent.ARRIVAL)) {
+            appendTime(events, getTime(CustomerEvent.ARRIVAL));
+            events.append("Customer ").append(this.customerId).append(" arrives.").append(NEW_LINE);
         }
-        if (this.events.containsKey("Seated")) {
-            events.append(String.format("[%s] Customer %d is seated at Table %d%n",
-                    this.events.get("Seated").format(formatter), this.customerId, this.tableIndex));
+        if (hasTime(CustomerEvent.SEATED)) {
+            appendTime(events, getTime(CustomerEvent.SEATED));
+            events.append("Customer ").append(this.customerId).append(" is seated at Table ").append(this.tableIndex).append(NEW_LINE);
         }
-        if (this.events.containsKey("Order")) {
-            events.append(String.format("[%s] Customer %d places an order: %s%n",
-                    this.events.get("Order").format(formatter), this.customerId, this.order.getMealName()));
+        if (hasTime(CustomerEvent.ORDER)) {
+            appendTime(events, getTime(CustomerEvent.ORDER));
+            events.append("Customer ").append(this.customerId).append(" places an order: ").append(mealName).append(NEW_LINE);
         }
-        if (this.events.containsKey("ChefStart")) {
-            events.append(String.format("[%s] Chef %d starts preparing %s for Customer %d%n",
-                    this.events.get("ChefStart").format(formatter), this.chefId,
-                    this.order.getMealName(), this.customerId));
+        if (hasTime(CustomerEvent.CHEF_START)) {
+            appendTime(events, getTime(CustomerEvent.CHEF_START));
+            events.append("Chef ").append(this.chefId).append(" starts preparing ").append(mealName)
+                    .append(" for Customer ").append(this.customerId).append(NEW_LINE);
         }
-        if (this.events.containsKey("ChefFinish")) {
-            events.append(String.format("[%s] Chef %d finishes preparing %s for Customer %d%n",
-                    this.events.get("ChefFinish").format(formatter), this.chefId,
-                    this.order.getMealName(), this.customerId));
+        if (hasTime(CustomerEvent.CHEF_FINISH)) {
+            appendTime(events, getTime(CustomerEvent.CHEF_FINISH));
+            events.append("Chef ").append(this.chefId).append(" finishes preparing ").append(mealName)
+                    .append(" for Customer ").append(this.customerId).append(NEW_LINE);
         }
-        if (this.events.containsKey("Serve")) {
-            events.append(String.format("[%s] Waiter %d serves %s to Customer %d at Table %d%n",
-                    this.events.get("Serve").format(formatter), this.waiterId,
-                    this.order.getMealName(), this.customerId, this.tableIndex));
+        if (hasTime(CustomerEvent.SERVE)) {
+            appendTime(events, getTime(CustomerEvent.SERVE));
+            events.append("Waiter ").append(this.waiterId).append(" serves ").append(mealName)
+                    .append(" to Customer ").append(this.customerId).append(" at Table ").append(this.tableIndex).append(NEW_LINE);
         }
-        if (this.events.containsKey("Leave")) {
-            events.append(String.format("[%s] Customer %d finishes eating and leaves the restaurant.%n",
-                    this.events.get("Leave").format(formatter), this.customerId));
-            events.append(String.format("[%s] Table %d is now available.%n",
-                    this.events.get("Leave").format(formatter), this.tableIndex));
+        if (hasTime(CustomerEvent.LEAVE)) {
+            appendTime(events, getTime(CustomerEvent.LEAVE));
+            events.append("Customer ").append(this.customerId).append(" finishes eating and leaves the restaurant.").append(NEW_LINE);
+            appendTime(events, getTime(CustomerEvent.LEAVE));
+            events.append("Table ").append(this.tableIndex).append(" is now available.").append(NEW_LINE);
         }
 
         events.append("\n");
+    }
 
-        return events.toString();
+    //Appends "[HH:mm] " without going through a DateTimeFormatter
+    private static void appendTime(StringBuilder events, long time) {
+        events.append('[');
+        SimulationTime.appendClock(events, time);
+        events.append("] ");
     }
 
 }
@@ -0,0 +1,25 @@
+import java.util.Arrays;
+
+//The events of a customer's visit, in the order they happen.
+//A timeline is an int array indexed by ordinal() that stores the minute of each event (see SimulationTime),
+//an int holds the minutes of every year up to SimulationTime.MAX_YEAR, so the record of a customer stays small.
+//The times are long everywhere else, they are only narrowed when they are stored in a timeline.
+enum CustomerEvent {
+    ARRIVAL, SEATED, ORDER, CHEF_START, CHEF_FINISH, SERVE, LEAVE;
+
+    static final int NOT_SET = Integer.MIN_VALUE; //not a minute of any supported year (-1 is 1969-12-31 23:59)
+
+    private static final int COUNT = values().length;
+
+    //This method creates an empty timeline, every event is NOT_SET until it happens
+    static int[] newTimeline() {
+        int[] timeline = new int[COUNT];
+        Arrays.fill(timeline, NOT_SET);
+        return timeline;
+    }
+
+    //This method narrows a time to the int stored in a timeline, it throws an ArithmeticException for a time outside the int range
+    static int minute(long time) {
+        return Math.toIntExact(time);
+    }
+}
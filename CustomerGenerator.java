@@ -0,0 +1,124 @@
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Locale;
+import java.util.SplittableRandom;
+
+//This class generates the customers of a scenario on the fly instead of reading them from the input file.
+//Arrivals are a Poisson stream with the rate of the ArrivalProfile (non-homogeneous streams are drawn by thinning:
+//candidates come at the peak rate and are kept with probability rate / peak rate), the meals are drawn from the catalog by weight.
+//Nothing is stored, so millions of customers need no more memory than a few. The stream can be written to a file in the input format.
+class CustomerGenerator implements CustomerSource {
+
+    //Constructor --------------------------------------------------------------------
+    private final ArrivalProfile profile;
+    private final String[] mealNames;
+    private final double[] cumulativeWeights;
+    private final long maxCustomers;
+    private final SplittableRandom random;
+    private final String configLine;
+    private final String mealLine;
+
+    //The configuration and the meal catalog come from the input file, a meal without an entry in options.mealWeights gets weight 1
+    public CustomerGenerator(CustomerStream catalog, SimulationOptions options) {
+        this.profile = options.arrivalProfile;
+        this.mealNames = catalog.getMealNames();
+        this.maxCustomers = options.maxCustomers;
+        this.random = RandomStreams.forActor(options.seed, RandomStreams.ARRIVALS, 0);
+        this.configLine = catalog.getConfigLine();
+        this.mealLine = catalog.getMealLine();
+        cumulativeWeights = new double[mealNames.length];
+        double total = 0;
+        for (int i = 0; i < mealNames.length; i++) {
+            total += options.mealWeights.getOrDefault(mealNames[i], 1.0);
+            cumulativeWeights[i] = total;
+        }
+    }
+
+    //Global variables --------------------------------------------------------------
+    private double clock = 0; //minutes from midnight of the first day (day 0, see SimulationTime)
+    private long generated = 0;
+    private BufferedWriter dump;
+
+    //fields of the current customer
+    private int customerId;
+    private long arrivalTime;
+    private String mealName;
+
+    //next method --------------------------------------------------------------------
+    //This method draws the next customer. Without a customer limit the stream ends at midnight, with one it goes on into the next days
+    @Override
+    public boolean next() throws IOException {
+        if (generated >= maxCustomers || profile.getMaxRate() == 0) {
+            return false;
+        }
+        do {
+            clock += random.nextExponential() / profile.getMaxRate();
+        } while (random.nextDouble() * profile.getMaxRate() > profile.rateAt(clock));
+        if (maxCustomers == Long.MAX_VALUE && clock >= SimulationTime.MINUTES_PER_DAY) {
+            return false;
+        }
+
+        generated++;
+        customerId = (int) generated;
+        arrivalTime = (long) clock;
+        mealName = drawMeal();
+        if (dump != null) {
+            //the first day is written as HH:mm like the hand-written files, the next days with their date
+            dump.write(String.format(Locale.ROOT, "CustomerID=%d ArrivalTime=%s Order=%s", customerId, SimulationTime.format(arrivalTime), mealName));
+            dump.newLine();
+        }
+        return true;
+    }
+
+    //This method writes the generated customers to a file in the input format, the header lines are copied from the input file
+    public void dumpTo(String dumpFile) throws IOException {
+        dump = Files.newBufferedWriter(Path.of(dumpFile), StandardCharsets.UTF_8);
+        dump.write(configLine);
+        dump.newLine();
+        dump.write(mealLine);
+        dump.newLine();
+    }
+
+    //Helper methods --------------------------------------------------------------
+    private String drawMeal() {
+        double target = random.nextDouble() * cumulativeWeights[cumulativeWeights.length - 1];
+        int low = 0;
+        int high = cumulativeWeights.length - 1;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (cumulativeWeights[middle] > target) {
+                high = middle;
+            } else {
+                low = middle + 1;
+            }
+        }
+        return mealNames[low];
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (dump != null) {
+            dump.close();
+            dump = null;
+        }
+    }
+
+    //getters --------------------------------------------------------------------
+    @Override
+    public int getCustomerId() {
+        return customerId;
+    }
+
+    @Override
+    public long getArrivalTime() {
+        return arrivalTime;
+    }
+
+    @Override
+    public String getMealName() {
+        return mealName;
+    }
+}
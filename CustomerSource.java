@@ -0,0 +1,17 @@
+import java.io.Closeable;
+import java.io.IOException;
+
+//A stream of customers in arrival order, either read from the input file (CustomerStream) or generated (CustomerGenerator).
+//next() moves to the next customer, the getters return the fields of the current customer
+interface CustomerSource extends Closeable {
+
+    //This method moves to the next customer and returns false once every customer has arrived
+    boolean next() throws IOException;
+
+    int getCustomerId();
+
+    //the arrival as a SimulationTime (minutes counted from 1970-01-01 00:00)
+    long getArrivalTime();
+
+    String getMealName();
+}
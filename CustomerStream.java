@@ -0,0 +1,354 @@
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+
+//This class reads an input file as a stream, the file is memory-mapped and the customer lines are parsed straight from the bytes.
+//The configuration and the meals (first two lines) are read when the stream is opened, after that next() parses one
+//`CustomerID=.. ArrivalTime=.. Order=..` line at a time into reused fields, so memory stays constant no matter how big the file is.
+//The customer lines are expected in arrival order, as in the arrival logs, a customer that arrives before the previous one is invalid data.
+//An arrival is HH:mm or date-stamped yyyy-MM-ddTHH:mm, both are turned into a SimulationTime. An undated time belongs to the day
+//of the previous arrival and moves on to the next day when it is more than half a day earlier (e.g. 23:50 followed by 00:10).
+class CustomerStream implements CustomerSource {
+    private static final long WINDOW_SIZE = 64L * 1024 * 1024; //bytes mapped at a time, files bigger than this are mapped window by window
+    private static final int MAX_LINE_LENGTH = 4096;
+    private static final int HALF_DAY = SimulationTime.MINUTES_PER_DAY / 2;
+
+    private static final byte[] CUSTOMER_ID = "CustomerID".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] ARRIVAL_TIME = "ArrivalTime".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] ORDER = "Order".getBytes(StandardCharsets.US_ASCII);
+
+    //Constructor --------------------------------------------------------------------
+    private final FileChannel channel;
+    private final long fileSize;
+
+    public CustomerStream(String inputFile) throws IOException {
+        channel = FileChannel.open(Path.of(inputFile), StandardOpenOption.READ);
+        fileSize = channel.size();
+        map(0);
+        readConfig();
+    }
+
+    //Global variables --------------------------------------------------------------
+    private MappedByteBuffer window;
+    private long windowStart;
+
+    private int numChefs;
+    private int numWaiters;
+    private int numTables;
+    private String configLine;
+    private String mealLine;
+    private final HashMap<String, Integer> meals = new HashMap<>();
+    private final LinkedHashMap<String, String> mealStations = new LinkedHashMap<>(); //meal -> kitchen station, in catalog order
+    private String[] mealNames = new String[0];
+    private byte[][] mealNameBytes = new byte[0][];
+
+    //fields of the current customer line
+    private int customerId;
+    private long arrivalTime;
+
+    private long currentDay = 0; //midnight of the day undated arrivals belong to
+    private long lastArrival = 0;
+    private boolean firstCustomer = true; //the first arrival has nothing to be in order with, it may even be before 1970
+    private String mealName;
+
+    //next method --------------------------------------------------------------------
+    //This method moves to the next customer line and returns false at the end of the file
+    @Override
+    public boolean next() throws IOException {
+        while (true) {
+            if (window.remaining() < MAX_LINE_LENGTH && windowStart + window.limit() < fileSize) {
+                map(windowStart + window.position());
+            }
+            if (!window.hasRemaining()) {
+                return false;
+            }
+            if (parseCustomerLine()) {
+                return true;
+            }
+        }
+    }
+
+    //Parse the tokens of one line without creating strings, returns false for an empty line
+    private boolean parseCustomerLine() throws IOException {
+        boolean hasId = false;
+        boolean hasArrival = false;
+        mealName = null;
+        boolean emptyLine = true;
+
+        while (window.hasRemaining()) {
+            byte b = window.get();
+            if (b == '\n') {
+                break;
+            }
+            if (b == ' ' || b == '\r' || b == '\t') {
+                continue;
+            }
+            emptyLine = false;
+
+            //read the key up to '='
+            int keyStart = window.position() - 1;
+            while (window.hasRemaining() && window.get(window.position()) != '=') {
+                window.get();
+            }
+            int keyEnd = window.position();
+            if (!window.hasRemaining()) {
+                break;
+            }
+            window.get(); //skip '='
+
+            if (keyEquals(keyStart, keyEnd, CUSTOMER_ID)) {
+                customerId = readNumber();
+                endOfValue();
+                hasId = true;
+            } else if (keyEquals(keyStart, keyEnd, ARRIVAL_TIME)) {
+                arrivalTime = readArrivalTime();
+                endOfValue();
+                hasArrival = true;
+            } else if (keyEquals(keyStart, keyEnd, ORDER)) {
+                mealName = readMealName();
+            } else {
+                skipToken();
+            }
+        }
+
+        if (emptyLine) {
+            return false;
+        }
+        if (!hasId || !hasArrival || mealName == null) {
+            throw new IOException("Invalid data");
+        }
+        //the stream can not sort the customers, an earlier arrival would be scheduled late and get a longer wait
+        if (!firstCustomer && arrivalTime < lastArrival) {
+            throw new IOException("Invalid data: customer " + customerId + " arrives before the previous customer");
+        }
+        lastArrival = arrivalTime;
+        firstCustomer = false;
+        return true;
+    }
+
+    //Read the configuration and meals from the first two lines, they are short so they are read as strings
+    private void readConfig() throws IOException {
+        configLine = readLine();
+        for (String value1 : configLine.split(" ")) {
+            String[] value = value1.split("=");
+            switch (value[0]) {
+                case "NC" ->
+                    numChefs = Integer.parseInt(value[1]);
+                case "NW" ->
+                    numWaiters = Integer.parseInt(value[1]);
+                case "NT" ->
+                    numTables = Integer.parseInt(value[1]);
+            }
+        }
+
+        //a meal is written as Name=00:M or Name=00:M@station (e.g. Pizza=00:10@oven)
+        mealLine = readLine();
+        String[] mealValues = mealLine.split(" ");
+        mealNames = new String[mealValues.length];
+        mealNameBytes = new byte[mealValues.length][];
+        for (int i = 0; i < mealValues.length; i++) {
+            String[] meal = mealValues[i].split("=");
+            String[] timeAndStation = meal[1].split("@");
+            int mealTime = Integer.parseInt(timeAndStation[0].split(":")[1]);
+            meals.put(meal[0], mealTime);
+            if (timeAndStation.length > 1) {
+                mealStations.put(meal[0], timeAndStation[1]);
+            }
+            mealNames[i] = meal[0];
+            mealNameBytes[i] = meal[0].getBytes(StandardCharsets.UTF_8);
+        }
+    }
+
+    //Helper methods --------------------------------------------------------------
+    private void map(long position) throws IOException {
+        windowStart = position;
+        window = channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(WINDOW_SIZE, fileSize - position));
+    }
+
+    //The first two lines are decoded as UTF-8, so a meal name can have any characters
+    private String readLine() {
+        ByteArrayOutputStream line = new ByteArrayOutputStream();
+        while (window.hasRemaining()) {
+            byte b = window.get();
+            if (b == '\n') {
+                break;
+            }
+            if (b != '\r') {
+                line.write(b);
+            }
+        }
+        return line.toString(StandardCharsets.UTF_8).trim();
+    }
+
+    //Read HH:mm or yyyy-MM-ddTHH:mm, every field has its fixed number of digits like LocalTime.parse expects
+    private long readArrivalTime() throws IOException {
+        boolean dated = window.remaining() > 4 && window.get(window.position() + 4) == '-';
+        if (dated) {
+            int year = readDigits(4, 0, SimulationTime.MAX_YEAR);
+            skip('-');
+            int month = readDigits(2, 1, 12);
+            skip('-');
+            int day = readDigits(2, 1, 31);
+            skip('T');
+            currentDay = SimulationTime.ofDate(year, month, day);
+        }
+        int hour = readDigits(2, 0, 23);
+        skip(':');
+        long time = currentDay + hour * 60L + readDigits(2, 0, 59);
+        if (!dated && time < lastArrival - HALF_DAY) { //an undated time after midnight
+            currentDay += SimulationTime.MINUTES_PER_DAY;
+            time += SimulationTime.MINUTES_PER_DAY;
+        }
+        return time;
+    }
+
+    //Read a number of exactly `digits` digits between min and max
+    private int readDigits(int digits, int min, int max) throws IOException {
+        int number = 0;
+        for (int i = 0; i < digits; i++) {
+            if (!window.hasRemaining()) {
+                throw new IOException("Invalid data");
+            }
+            byte b = window.get();
+            if (b < '0' || b > '9') {
+                throw new IOException("Invalid data");
+            }
+            number = number * 10 + (b - '0');
+        }
+        if (number < min || number > max) {
+            throw new IOException("Invalid data");
+        }
+        return number;
+    }
+
+    //a value ends at a space or at the end of the line, anything else is invalid data
+    private void endOfValue() throws IOException {
+        if (!window.hasRemaining()) {
+            return;
+        }
+        byte b = window.get(window.position());
+        if (b != ' ' && b != '\t' && b != '\r' && b != '\n') {
+            throw new IOException("Invalid data");
+        }
+    }
+
+    private void skip(char separator) throws IOException {
+        if (!window.hasRemaining() || window.get() != separator) {
+            throw new IOException("Invalid data");
+        }
+    }
+
+    private boolean keyEquals(int start, int end, byte[] key) {
+        if (end - start != key.length) {
+            return false;
+        }
+        for (int i = 0; i < key.length; i++) {
+            if (window.get(start + i) != key[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    //Read a number of one or more digits
+    private int readNumber() throws IOException {
+        int number = 0;
+        int start = window.position();
+        while (window.hasRemaining()) {
+            byte b = window.get(window.position());
+            if (b < '0' || b > '9') {
+                break;
+            }
+            number = number * 10 + (b - '0');
+            window.get();
+        }
+        if (window.position() == start) {
+            throw new IOException("Invalid data");
+        }
+        return number;
+    }
+
+    //The meal name is matched against the catalog, so the same String instance is returned for every order of a meal
+    private String readMealName() throws IOException {
+        int start = window.position();
+        skipToken();
+        int end = window.position();
+        for (int i = 0; i < mealNameBytes.length; i++) {
+            if (keyEquals(start, end, mealNameBytes[i])) {
+                return mealNames[i];
+            }
+        }
+        throw new IOException("Unknown meal at byte " + (windowStart + start));
+    }
+
+    private void skipToken() {
+        while (window.hasRemaining()) {
+            byte b = window.get(window.position());
+            if (b == ' ' || b == '\n' || b == '\r' || b == '\t') {
+                break;
+            }
+            window.get();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    //getters --------------------------------------------------------------------
+    public int getNumChefs() {
+        return numChefs;
+    }
+
+    public int getNumWaiters() {
+        return numWaiters;
+    }
+
+    public int getNumTables() {
+        return numTables;
+    }
+
+    public HashMap<String, Integer> getMeals() {
+        return meals;
+    }
+
+    //the meal names in catalog order
+    public String[] getMealNames() {
+        return mealNames.clone();
+    }
+
+    //the first two lines of the file as they were read
+    public String getConfigLine() {
+        return configLine;
+    }
+
+    public String getMealLine() {
+        return mealLine;
+    }
+
+    public LinkedHashMap<String, String> getMealStations() {
+        return mealStations;
+    }
+
+    @Override
+    public int getCustomerId() {
+        return customerId;
+    }
+
+    @Override
+    public long getArrivalTime() {
+        return arrivalTime;
+    }
+
+    @Override
+    public String getMealName() {
+        return mealName;
+    }
+}
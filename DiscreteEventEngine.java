@@ -0,0 +1,324 @@
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.PriorityQueue;
+import java.util.SplittableRandom;
+import java.util.function.Supplier;
+
+//This class runs the restaurant as a discrete-event simulation on a virtual clock instead of sleeping threads.
+//Every stage of a customer's visit is a timestamped event in a priority queue (the event calendar), and the clock
+//jumps straight to the next event, so a whole day of traffic is replayed in milliseconds with the same
+//CustomerData timelines as the threaded engine.
+class DiscreteEventEngine {
+
+    //Event types in the order they happen to a single customer
+    enum EventType {
+        ARRIVAL, SEAT, COOK_START, COOK_FINISH, SERVE, LEAVE
+    }
+
+    //An entry of the event calendar, events at the same minute are processed in the order they were scheduled
+    private static final class Event implements Comparable<Event> {
+        private final long time;
+        private final long sequence;
+        private final EventType type;
+        private final Visit visit;
+        private final int staffId;
+
+        Event(long time, long sequence, EventType type, Visit visit, int staffId) {
+            this.time = time;
+            this.sequence = sequence;
+            this.type = type;
+            this.visit = visit;
+            this.staffId = staffId;
+        }
+
+        @Override
+        public int compareTo(Event o) {
+            int byTime = Long.compare(this.time, o.time);
+            return (byTime != 0) ? byTime : Long.compare(this.sequence, o.sequence);
+        }
+    }
+
+    //The state of one customer while he is inside the restaurant
+    private static final class Visit {
+        private final Customer customer;
+        private final int[] timeline = CustomerEvent.newTimeline();
+        private int tableIndex;
+        private double priority; //key of the scheduling policy, set when the order is placed
+        private long orderSequence; //position in the order stream, breaks ties between equal keys
+        private ArrayList<Visit> batch; //the visits cooked together with this one, only set on the first visit of the batch
+        private boolean lastPlate; //the waiter is free again after serving this visit
+
+        Visit(Customer customer) {
+            this.customer = customer;
+        }
+    }
+
+    //Constructor --------------------------------------------------------------------
+    private final int numChefs;
+    private final int numWaiters;
+    private final int numTables;
+    private final SimulationOptions options;
+    private final KitchenLayout layout;
+    private final boolean stealing;
+
+    public DiscreteEventEngine(int numChefs, int numWaiters, int numTables, SimulationOptions options, KitchenLayout layout) {
+        this.numChefs = numChefs;
+        this.numWaiters = numWaiters;
+        this.numTables = numTables;
+        this.options = options;
+        this.layout = layout;
+        this.stealing = layout.canSteal(numChefs);
+        waiterRandoms = new SplittableRandom[numWaiters + 1];
+        for (int i = 1; i <= numWaiters; i++) {
+            waiterRandoms[i] = RandomStreams.forActor(options.seed, RandomStreams.WAITER, i);
+        }
+        for (int i = 0; i < layout.getStationCount(); i++) {
+            stationOrders.add(new PriorityQueue<>(this::compareOrders));
+        }
+    }
+
+    //Global variables --------------------------------------------------------------
+    private final PriorityQueue<Event> calendar = new PriorityQueue<>();
+    private final ArrayDeque<Visit> tableWaitQueue = new ArrayDeque<>();
+    private final ArrayList<PriorityQueue<Visit>> stationOrders = new ArrayList<>(); //pending orders of every kitchen station
+    private final ArrayDeque<Visit> readyOrders = new ArrayDeque<>();
+    private final ArrayDeque<Integer> idleChefs = new ArrayDeque<>();
+    private final ArrayDeque<Integer> idleWaiters = new ArrayDeque<>();
+    private final BitSet occupiedTables = new BitSet();
+    private int occupiedTableCount = 0;
+    private final SplittableRandom[] waiterRandoms; //one stream per waiter, the same streams the Waiter threads use
+    private Supplier<Customer> arrivals;
+    private long now = Long.MIN_VALUE; //before the first event, arrivals can be before 1970 (negative times)
+    private long sequence = 0;
+    private long orderSequence = 0;
+
+    //run method --------------------------------------------------------------------
+    //This method replays the customers on the virtual clock and hands each finished visit to the ResultWriter.
+    //Customers are pulled from `arrivals` (in arrival order, null at the end) one at a time, only the next arrival is in the calendar.
+    public void run(Supplier<Customer> arrivals, ResultWriter results) {
+        Customer first = arrivals.get();
+        if (first == null) {
+            return;
+        }
+        this.arrivals = arrivals;
+
+        for (int i = 1; i <= numChefs; i++) {
+            idleChefs.add(i);
+        }
+        for (int i = 1; i <= numWaiters; i++) {
+            idleWaiters.add(i);
+        }
+        scheduleArrival(first);
+
+        while (!calendar.isEmpty()) {
+            Event event = calendar.poll();
+            now = event.time;
+            switch (event.type) {
+                case ARRIVAL ->
+                    onArrival(event);
+                case SEAT ->
+                    onSeat(event);
+                case COOK_START ->
+                    onCookStart(event);
+                case COOK_FINISH ->
+                    onCookFinish(event);
+                case SERVE ->
+                    onServe(event);
+                case LEAVE ->
+                    onLeave(event, results);
+            }
+        }
+    }
+
+    //Event handlers (the clock is a SimulationTime, the same unit as the timelines) ----------------------------------------------------------------
+    private void onArrival(Event event) {
+        event.visit.timeline[CustomerEvent.ARRIVAL.ordinal()] = CustomerEvent.minute(event.visit.customer.getArrivalTime());
+        tableWaitQueue.add(event.visit);
+        seatWaitingCustomers(event.time);
+
+        Customer next = arrivals.get();
+        if (next != null) {
+            scheduleArrival(next);
+        }
+    }
+
+    private void onSeat(Event event) {
+        Visit visit = event.visit;
+        visit.timeline[CustomerEvent.SEATED.ordinal()] = CustomerEvent.minute(event.time);
+
+        //the customer places the order as soon as he is seated
+        visit.timeline[CustomerEvent.ORDER.ordinal()] = CustomerEvent.minute(event.time);
+        Order order = visit.customer.getOrder();
+        order.setPlacedAt(event.time);
+        order.setTableIndex(visit.tableIndex);
+        visit.priority = options.scheduling.priority(order, options.agingRate);
+        visit.orderSequence = orderSequence++;
+        stationOrders.get(layout.getMealStation(order.getMealName())).add(visit);
+        assignChefs(event.time);
+    }
+
+    //The cook events belong to the first visit of the batch and apply to every visit of it
+    private void onCookStart(Event event) {
+        ArrayList<Visit> batch = event.visit.batch;
+        for (int i = 0; i < batch.size(); i++) {
+            Visit visit = batch.get(i);
+            visit.customer.getOrder().setBatch(batch.size(), i);
+            visit.customer.getOrder().markOrderStart(event.staffId);
+            visit.timeline[CustomerEvent.CHEF_START.ordinal()] = CustomerEvent.minute(event.time);
+        }
+        int cookTime = Chef.batchCookTime(event.visit.customer.getOrder().getMealTime(), batch.size(), options.batchExtraCost);
+        schedule(event.time + cookTime, EventType.COOK_FINISH, event.visit, event.staffId);
+    }
+
+    private void onCookFinish(Event event) {
+        for (Visit visit : event.visit.batch) {
+            visit.timeline[CustomerEvent.CHEF_FINISH.ordinal()] = CustomerEvent.minute(event.time);
+            visit.customer.getOrder().markOrderReady();
+            readyOrders.add(visit);
+        }
+        event.visit.batch = null;
+        idleChefs.add(event.staffId);
+        assignChefs(event.time);
+        assignWaiters(event.time);
+    }
+
+    private void onServe(Event event) {
+        Visit visit = event.visit;
+        visit.customer.getOrder().markOrderServed(event.staffId);
+        visit.timeline[CustomerEvent.SERVE.ordinal()] = CustomerEvent.minute(event.time);
+        if (visit.lastPlate) {
+            idleWaiters.add(event.staffId);
+            assignWaiters(event.time);
+        }
+        schedule(event.time + visit.customer.generateRandomEatingTime(), EventType.LEAVE, visit, 0);
+    }
+
+    private void onLeave(Event event, ResultWriter results) {
+        Visit visit = event.visit;
+        Customer customer = visit.customer;
+        visit.timeline[CustomerEvent.LEAVE.ordinal()] = CustomerEvent.minute(event.time);
+        results.add(customer.getSequence(), new CustomerData(customer.getCustomerId(), customer.getOrder().getChefId(), customer.getOrder().getWaiterId(), visit.timeline, customer.getOrder(), visit.tableIndex));
+
+        occupiedTables.clear(visit.tableIndex - 1);
+        occupiedTableCount--;
+        seatWaitingCustomers(event.time);
+    }
+
+    //Helper methods --------------------------------------------------------------
+    //Seat waiting customers in arrival order at the first empty table, like BoundedQueue does with one table section
+    //(with more sections a threaded run seats at the first empty table of the thread's section, only the table numbers differ)
+    private void seatWaitingCustomers(long time) {
+        while (!tableWaitQueue.isEmpty() && occupiedTableCount < numTables) {
+            Visit visit = tableWaitQueue.poll();
+            int index = occupiedTables.nextClearBit(0);
+            occupiedTables.set(index);
+            occupiedTableCount++;
+            visit.tableIndex = index + 1;
+            schedule(time, EventType.SEAT, visit, 0);
+        }
+    }
+
+    //Hand pending orders to idle chefs in the order of the scheduling policy, the chef that became idle first takes the next order.
+    //A chef takes the orders of his own station first and, like the StationOrderQueue, steals from the next stations when allowed
+    private void assignChefs(long time) {
+        for (Iterator<Integer> it = idleChefs.iterator(); it.hasNext();) {
+            int chefId = it.next();
+            PriorityQueue<Visit> orderBuffer = findOrders(layout.getChefStation(chefId));
+            if (orderBuffer != null) {
+                it.remove();
+                Visit first = orderBuffer.poll();
+                first.batch = takeBatch(orderBuffer, first);
+                schedule(time, EventType.COOK_START, first, chefId);
+            }
+        }
+    }
+
+    //Returns the first station queue with an order the chefs of the station may cook, or null
+    private PriorityQueue<Visit> findOrders(int station) {
+        int queues = stealing ? stationOrders.size() : 1;
+        for (int i = 0; i < queues; i++) {
+            PriorityQueue<Visit> orderBuffer = stationOrders.get((station + i) % stationOrders.size());
+            if (!orderBuffer.isEmpty()) {
+                return orderBuffer;
+            }
+        }
+        return null;
+    }
+
+    //Take up to batchSize - 1 more pending orders of the same meal, the ones the scheduling policy would cook first
+    private ArrayList<Visit> takeBatch(PriorityQueue<Visit> orderBuffer, Visit first) {
+        ArrayList<Visit> batch = new ArrayList<>();
+        batch.add(first);
+        if (options.batchSize <= 1) {
+            return batch;
+        }
+        ArrayList<Visit> sameMeal = new ArrayList<>();
+        for (Visit visit : orderBuffer) {
+            if (visit.customer.getOrder().getMealName().equals(first.customer.getOrder().getMealName())) {
+                sameMeal.add(visit);
+            }
+        }
+        sameMeal.sort(this::compareOrders);
+        for (int i = 0; i < sameMeal.size() && batch.size() < options.batchSize; i++) {
+            orderBuffer.remove(sameMeal.get(i));
+            batch.add(sameMeal.get(i));
+        }
+        return batch;
+    }
+
+    //Hand ready orders to idle waiters, the walk to the first table takes a random time between 5 and 10 minutes
+    //and every next plate of the trip is served plateServeTime minutes after the previous one
+    private void assignWaiters(long time) {
+        while (!readyOrders.isEmpty() && !idleWaiters.isEmpty()) {
+            ArrayList<Visit> trip = takeTrip();
+            int waiterId = idleWaiters.poll();
+            long serveTime = time + generateRandomServingTime(waiterId);
+            for (int i = 0; i < trip.size(); i++) {
+                Visit visit = trip.get(i);
+                visit.lastPlate = (i == trip.size() - 1);
+                schedule(serveTime + (long) i * options.plateServeTime, EventType.SERVE, visit, waiterId);
+            }
+        }
+    }
+
+    //Take the next plateCapacity ready orders like the Waiter does, orders off the route go back to the end of the queue
+    private ArrayList<Visit> takeTrip() {
+        ArrayList<Visit> trip = new ArrayList<>();
+        trip.add(readyOrders.poll());
+        int taken = Math.min(options.plateCapacity - 1, readyOrders.size());
+        for (int i = 0; i < taken; i++) {
+            Visit visit = readyOrders.poll();
+            if (Waiter.isOnRoute(trip.get(0).tableIndex, visit.tableIndex, options.servingRadius)) {
+                trip.add(visit);
+            } else {
+                readyOrders.add(visit);
+            }
+        }
+        trip.sort(Comparator.comparingInt(visit -> visit.tableIndex));
+        return trip;
+    }
+
+    //Orders with the same priority are cooked in the order they were placed, so FIFO keeps the original order
+    private int compareOrders(Visit a, Visit b) {
+        int byPriority = Double.compare(a.priority, b.priority);
+        return (byPriority != 0) ? byPriority : Long.compare(a.orderSequence, b.orderSequence);
+    }
+
+    private void scheduleArrival(Customer customer) {
+        schedule(Math.max(customer.getArrivalTime(), now), EventType.ARRIVAL, new Visit(customer), 0);
+    }
+
+    private void schedule(long time, EventType type, Visit visit, int staffId) {
+        calendar.add(new Event(time, sequence++, type, visit, staffId));
+    }
+
+    //This method is used to generate a random serving time between 5 and 10 minutes from the stream of the waiter
+    private int generateRandomServingTime(int waiterId) {
+        int min = 5;
+        int max = 10;
+        return options.servingTime.sample(waiterRandoms[waiterId], min, max);
+    }
+}
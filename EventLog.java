@@ -0,0 +1,128 @@
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+//This class is the console trace of the threaded simulation. The actors do not print, they put a binary event
+//(type, staff id and customer id packed in one long, plus the meal name reference) into a lock-free ring,
+//and one background thread turns the events into text and prints them in large chunks, so no actor waits on System.out.
+//A disabled log (verbosity off or summary) returns straight away and starts no thread.
+//Every line starts with the prefix, so the traces of scenarios that run at the same time can be told apart.
+class EventLog {
+    private static final int CAPACITY = 1 << 14; //events that can wait for the drainer, producers yield while the ring is full
+    private static final int FLUSH_SIZE = 64 * 1024; //characters printed at once
+    private static final long IDLE_NANOS = 1_000_000; //how long the drainer sleeps when the ring is empty
+    private static final VarHandle SEQUENCE = MethodHandles.arrayElementVarHandle(long[].class);
+    private static final LogEvent[] EVENTS = LogEvent.values();
+
+    //Constructor --------------------------------------------------------------------
+    private final boolean enabled;
+    private final String prefix;
+    private final Thread drainer;
+
+    public EventLog(boolean enabled) {
+        this(enabled, "");
+    }
+
+    public EventLog(boolean enabled, String prefix) {
+        this.enabled = enabled;
+        this.prefix = prefix;
+        if (!enabled) {
+            drainer = null;
+            return;
+        }
+        for (int i = 0; i < CAPACITY; i++) {
+            sequences[i] = i;
+        }
+        drainer = new Thread(this::drain, "event-log");
+        drainer.setDaemon(true);
+        drainer.start();
+    }
+
+    //Global variables --------------------------------------------------------------
+    private final long[] events = new long[CAPACITY];
+    private final String[] mealNames = new String[CAPACITY];
+    private final long[] sequences = new long[CAPACITY]; //slot i holds an event for position p when sequences[i] == p + 1
+    private final AtomicLong head = new AtomicLong(); //next position to write, shared by the producers
+    private long tail = 0; //next position to read, only used by the drainer
+    private volatile boolean closed = false;
+    private final StringBuilder text = new StringBuilder(FLUSH_SIZE);
+
+    //log method --------------------------------------------------------------------
+    //This method records one step of the trace, it never formats or prints on the calling thread.
+    //After close() the events are dropped: only the threads of a stuck run still log then, and nothing drains the ring any more
+    public void log(LogEvent event, int staffId, int customerId, String mealName) {
+        if (!enabled || closed) {
+            return;
+        }
+        long position = head.getAndIncrement();
+        int index = (int) (position & (CAPACITY - 1));
+        while ((long) SEQUENCE.getVolatile(sequences, index) != position) {
+            if (closed) {
+                return;
+            }
+            Thread.yield(); //the ring is full, give the drainer the core to free the slot
+        }
+        events[index] = ((long) event.ordinal() << 58) | ((long) (staffId & 0x3FFFFFF) << 32) | (customerId & 0xFFFFFFFFL);
+        mealNames[index] = mealName;
+        SEQUENCE.setVolatile(sequences, index, position + 1); //publish the event to the drainer
+    }
+
+    //This method waits until every logged event is printed and stops the background thread
+    public void close() {
+        if (!enabled) {
+            return;
+        }
+        closed = true;
+        LockSupport.unpark(drainer);
+        try {
+            drainer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    //Helper methods --------------------------------------------------------------
+    private void drain() {
+        while (true) {
+            boolean wasClosed = closed; //read before draining, so the events logged before close() are always printed
+            int drained = drainAvailable();
+            if (text.length() > 0) {
+                System.out.print(text);
+                text.setLength(0);
+            }
+            if (wasClosed && drained == 0) {
+                System.out.flush();
+                return;
+            }
+            if (drained == 0) {
+                LockSupport.parkNanos(this, IDLE_NANOS);
+            }
+        }
+    }
+
+    //Format the published events into `text`, the text is printed whenever a chunk is full
+    private int drainAvailable() {
+        int drained = 0;
+        while (true) {
+            int index = (int) (tail & (CAPACITY - 1));
+            if ((long) SEQUENCE.getVolatile(sequences, index) != tail + 1) {
+                return drained;
+            }
+            long event = events[index];
+            String mealName = mealNames[index];
+            mealNames[index] = null;
+            SEQUENCE.setVolatile(sequences, index, tail + CAPACITY); //hand the slot back to the producers
+            tail++;
+            drained++;
+
+            text.append(prefix);
+            EVENTS[(int) (event >>> 58)].appendTo(text, (int) ((event >>> 32) & 0x3FFFFFF), (int) event, mealName);
+            text.append(System.lineSeparator());
+            if (text.length() >= FLUSH_SIZE) {
+                System.out.print(text);
+                text.setLength(0);
+            }
+        }
+    }
+}
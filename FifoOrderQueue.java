@@ -0,0 +1,34 @@
+//First come, first served order queue on top of the lock-free CircularBuffer
+class FifoOrderQueue implements OrderQueue {
+
+    private final CircularBuffer<Order> buffer;
+
+    public FifoOrderQueue(int capacity) {
+        buffer = new CircularBuffer<>(capacity);
+    }
+
+    @Override
+    public void add(Order order) {
+        buffer.add(order);
+    }
+
+    @Override
+    public Order remove() {
+        return (Order) buffer.remove();
+    }
+
+    @Override
+    public Order poll() {
+        return (Order) buffer.poll();
+    }
+
+    @Override
+    public void endShift() {
+        buffer.endShift();
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return buffer.isEmpty();
+    }
+}
@@ -0,0 +1,65 @@
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Map;
+
+//This class maps the meals of the catalog to kitchen stations (grill, oven, cold prep, ...) and the chefs to the stations.
+//The stations come from the meal catalog (Name=00:M@station), meals without a station are cooked at the "kitchen" station.
+//Chefs are spread over the stations in turn: chef 1 works at the first station, chef 2 at the second and so on.
+class KitchenLayout {
+    static final String DEFAULT_STATION = "kitchen";
+
+    //Constructor --------------------------------------------------------------------
+    private final boolean workStealing;
+
+    public KitchenLayout(Map<String, Integer> meals, Map<String, String> mealStations, boolean workStealing) {
+        this.workStealing = workStealing;
+        for (String station : mealStations.values()) {
+            addStation(station);
+        }
+        for (String meal : meals.keySet()) {
+            mealStation.put(meal, addStation(mealStations.getOrDefault(meal, DEFAULT_STATION)));
+        }
+        if (stations.isEmpty()) {
+            stations.add(DEFAULT_STATION);
+        }
+    }
+
+    //Global variables --------------------------------------------------------------
+    private final ArrayList<String> stations = new ArrayList<>();
+    private final HashMap<String, Integer> mealStation = new HashMap<>();
+
+    //Helper methods --------------------------------------------------------------
+    private int addStation(String station) {
+        int index = stations.indexOf(station);
+        if (index == -1) {
+            stations.add(station);
+            index = stations.size() - 1;
+        }
+        return index;
+    }
+
+    //This method is used to get the station that cooks a meal
+    public int getMealStation(String mealName) {
+        return mealStation.getOrDefault(mealName, 0);
+    }
+
+    //This method is used to get the station of a chef (chef ids start at 1)
+    public int getChefStation(int chefId) {
+        return (chefId - 1) % stations.size();
+    }
+
+    //Chefs may take orders of other stations when stealing is on, or when there are fewer chefs than stations,
+    //otherwise the orders of a station without a chef would never be cooked
+    public boolean canSteal(int numChefs) {
+        return workStealing || numChefs < stations.size();
+    }
+
+    //getters --------------------------------------------------------------------
+    public int getStationCount() {
+        return stations.size();
+    }
+
+    public String getStationName(int station) {
+        return stations.get(station);
+    }
+}
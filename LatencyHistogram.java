@@ -0,0 +1,76 @@
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+//This class is a fixed-memory histogram of durations in whole minutes, it can be updated from many threads at once.
+//Every minute up to MAX_MINUTES has its own bucket, so the percentiles are exact. Longer durations go to log-scaled buckets
+//like an HDR histogram: every power of two is split into SUB_BUCKETS buckets, so their percentiles are off by less than 2%.
+class LatencyHistogram {
+    static final int MAX_MINUTES = 24 * 60;
+    private static final int SUB_BUCKET_BITS = 6;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int FIRST_EXPONENT = 63 - Long.numberOfLeadingZeros(MAX_MINUTES + 1); //power of two of the first long duration
+    private static final int BUCKETS = MAX_MINUTES + 1 + (63 - FIRST_EXPONENT) * SUB_BUCKETS;
+
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+    private final AtomicLong count = new AtomicLong();
+    private final AtomicLong sum = new AtomicLong();
+    private final AtomicLong min = new AtomicLong(Long.MAX_VALUE);
+    private final AtomicLong max = new AtomicLong(Long.MIN_VALUE);
+
+    //This method records one duration
+    public void record(long minutes) {
+        buckets.incrementAndGet(bucketOf(Math.max(0, minutes)));
+        count.incrementAndGet();
+        sum.addAndGet(minutes);
+        min.accumulateAndGet(minutes, Math::min);
+        max.accumulateAndGet(minutes, Math::max);
+    }
+
+    //This method returns the smallest duration that at least `percentile` percent of the recorded durations do not exceed
+    public long percentile(double percentile) {
+        long total = count.get();
+        if (total == 0) {
+            return 0;
+        }
+        long rank = (long) Math.ceil(percentile / 100.0 * total);
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += buckets.get(i);
+            if (seen >= Math.max(rank, 1)) {
+                return Math.min(highestIn(i), max.get());
+            }
+        }
+        return max.get();
+    }
+
+    //This method takes a snapshot of the statistics, the cost does not depend on the number of recorded durations
+    public LatencyStats snapshot() {
+        long total = count.get();
+        if (total == 0) {
+            return new LatencyStats(0, 0, 0, 0, 0, 0, 0);
+        }
+        return new LatencyStats(total, (double) sum.get() / total, min.get(), max.get(), percentile(50), percentile(90), percentile(99));
+    }
+
+    //Helper methods --------------------------------------------------------------
+    //a long duration goes to the bucket of its power of two and the SUB_BUCKET_BITS bits below the highest bit
+    private static int bucketOf(long minutes) {
+        if (minutes <= MAX_MINUTES) {
+            return (int) minutes;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(minutes);
+        int sub = (int) (minutes >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+        return MAX_MINUTES + 1 + (exponent - FIRST_EXPONENT) * SUB_BUCKETS + sub;
+    }
+
+    //the longest duration that goes to the bucket
+    private static long highestIn(int bucket) {
+        if (bucket <= MAX_MINUTES) {
+            return bucket;
+        }
+        int exponent = FIRST_EXPONENT + (bucket - MAX_MINUTES - 1) / SUB_BUCKETS;
+        int sub = (bucket - MAX_MINUTES - 1) % SUB_BUCKETS;
+        long width = 1L << (exponent - SUB_BUCKET_BITS);
+        return (1L << exponent) + (sub + 1) * width - 1;
+    }
+}
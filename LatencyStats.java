@@ -0,0 +1,50 @@
+//This class stores the statistics of one metric of a finished simulation (all durations in minutes)
+class LatencyStats {
+
+    private final long count;
+    private final double mean;
+    private final long min;
+    private final long max;
+    private final long p50;
+    private final long p90;
+    private final long p99;
+
+    public LatencyStats(long count, double mean, long min, long max, long p50, long p90, long p99) {
+        this.count = count;
+        this.mean = mean;
+        this.min = min;
+        this.max = max;
+        this.p50 = p50;
+        this.p90 = p90;
+        this.p99 = p99;
+    }
+
+    //getters --------------------------------------------------------------------
+    public long getCount() {
+        return count;
+    }
+
+    public double getMean() {
+        return mean;
+    }
+
+    public long getMin() {
+        return min;
+    }
+
+    public long getMax() {
+        return max;
+    }
+
+    public long getP50() {
+        return p50;
+    }
+
+    public long getP90() {
+        return p90;
+    }
+
+    public long getP99() {
+        return p99;
+    }
+}
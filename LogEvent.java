@@ -0,0 +1,52 @@
+//The steps of the console trace, an event is logged as its type, the staff id, the customer id and the meal name,
+//the text is only built by the background thread of the EventLog
+enum LogEvent {
+    CUSTOMER_ARRIVED,
+    CUSTOMER_SEATED,
+    CUSTOMER_ORDERED,
+    CUSTOMER_WAITING,
+    CUSTOMER_ORDER_PREPARED,
+    CUSTOMER_SERVED,
+    CUSTOMER_EATING,
+    CUSTOMER_LEFT,
+    CHEF_PREPARING,
+    CHEF_PREPARED,
+    CHEF_SHIFT_ENDED,
+    WAITER_SERVING,
+    WAITER_SERVED,
+    WAITER_SHIFT_ENDED;
+
+    //This method appends the line of the event, the text is the same as the old System.out.println calls
+    void appendTo(StringBuilder line, int staffId, int customerId, String mealName) {
+        switch (this) {
+            case CUSTOMER_ARRIVED ->
+                line.append("Customer ").append(customerId).append(" has arrived.");
+            case CUSTOMER_SEATED ->
+                line.append("Customer ").append(customerId).append(" is seated at Table");
+            case CUSTOMER_ORDERED ->
+                line.append("Customer ").append(customerId).append(" places an order: ").append(mealName);
+            case CUSTOMER_WAITING ->
+                line.append("Customer ").append(customerId).append(" is waiting for the order to be ready.");
+            case CUSTOMER_ORDER_PREPARED ->
+                line.append("Customer ").append(customerId).append(" order has been prepared by chef ").append(staffId);
+            case CUSTOMER_SERVED ->
+                line.append("Customer ").append(customerId).append(" receives the order from the waiter ").append(staffId);
+            case CUSTOMER_EATING ->
+                line.append("Customer ").append(customerId).append(" starts eating.");
+            case CUSTOMER_LEFT ->
+                line.append("Customer ").append(customerId).append(" has left the restaurant.");
+            case CHEF_PREPARING ->
+                line.append("Chef ").append(staffId).append(" is preparing ").append(mealName).append(" for Customer ").append(customerId);
+            case CHEF_PREPARED ->
+                line.append("Chef ").append(staffId).append(" has prepared ").append(mealName).append(" for Customer ").append(customerId);
+            case CHEF_SHIFT_ENDED ->
+                line.append("Chef ").append(staffId).append(" has ended the shift");
+            case WAITER_SERVING ->
+                line.append("Waiter ").append(staffId).append(" is serving ").append(mealName).append(" for Customer ").append(customerId);
+            case WAITER_SERVED ->
+                line.append("Waiter ").append(staffId).append(" has served ").append(mealName).append(" for Customer ").append(customerId);
+            case WAITER_SHIFT_ENDED ->
+                line.append("Waiter ").append(staffId).append(" has ended the shift");
+        }
+    }
+}
@@ -0,0 +1,134 @@
+import java.util.List;
+import java.util.Locale;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+//This class replays the same scenario many times with different seeds (in parallel on the fork-join pool)
+//and reports the mean of every summary metric with its 95% confidence interval.
+//The replications run in waves, after every wave the intervals are checked and the run stops early once all of them are tight enough.
+class MonteCarloReplications {
+    private static final int MIN_REPLICATIONS = 30; //the intervals are not trusted for an early stop before this
+    private static final int WAVES_PER_CORE = 4; //replications per core in one wave
+
+    //two-sided 95% quantiles of Student's t distribution for 1 to 30 degrees of freedom, above that the normal quantile is used
+    private static final double[] T_QUANTILES = {12.706, 4.303, 3.182, 2.776, 2.571, 2.447, 2.365, 2.306, 2.262, 2.228,
+        2.201, 2.179, 2.160, 2.145, 2.131, 2.120, 2.110, 2.101, 2.093, 2.086, 2.080, 2.074, 2.069, 2.064, 2.060, 2.056, 2.052, 2.048, 2.045, 2.042};
+    private static final double Z_QUANTILE = 1.960;
+
+    //Running mean and variance of one metric (Welford's method), no replication is kept in memory
+    static final class Metric {
+        private final String name;
+        private long count;
+        private double mean;
+        private double squaredDeviations;
+
+        Metric(String name) {
+            this.name = name;
+        }
+
+        void add(double value) {
+            count++;
+            double delta = value - mean;
+            mean += delta / count;
+            squaredDeviations += delta * (value - mean);
+        }
+
+        //half width of the 95% confidence interval of the mean
+        double halfWidth() {
+            if (count < 2) {
+                return Double.POSITIVE_INFINITY;
+            }
+            double quantile = (count - 1 <= T_QUANTILES.length) ? T_QUANTILES[(int) count - 2] : Z_QUANTILE;
+            return quantile * Math.sqrt(squaredDeviations / (count - 1) / count);
+        }
+
+        boolean isTight(double precision) {
+            return halfWidth() <= precision * Math.abs(mean);
+        }
+
+        @Override
+        public String toString() {
+            double halfWidth = halfWidth();
+            return String.format(Locale.ROOT, "%-32s %12.3f %12.3f %12.3f %12.3f", name, mean, halfWidth, mean - halfWidth, mean + halfWidth);
+        }
+    }
+
+    //Constructor --------------------------------------------------------------------
+    private final String inputFile;
+    private final SimulationOptions options;
+
+    public MonteCarloReplications(String inputFile, SimulationOptions options) {
+        this.inputFile = inputFile;
+        this.options = options;
+    }
+
+    //Global variables --------------------------------------------------------------
+    private final Metric customersServed = new Metric("Total Customers Served");
+    private final Metric waitTime = new Metric("Average Wait Time for Table");
+    private final Metric preparationTime = new Metric("Average Order Preparation Time");
+    private final Metric simulationTime = new Metric("Total Simulation Time");
+    private final Metric[] metrics = {customersServed, waitTime, preparationTime, simulationTime};
+
+    //run method --------------------------------------------------------------------
+    //This method runs up to options.replications replications and returns the report
+    public String run() {
+        int waveSize = Runtime.getRuntime().availableProcessors() * WAVES_PER_CORE;
+        int done = 0;
+        boolean tight = false;
+        while (done < options.replications && !tight) {
+            int from = done;
+            int to = Math.min(options.replications, done + waveSize);
+
+            //every replication is an independent event-driven simulation, so a wave is spread over all cores
+            List<SimulationSummary> wave = IntStream.range(from, to).parallel()
+                    .mapToObj(this::simulate)
+                    .collect(Collectors.toList());
+
+            if (wave.contains(null)) {
+                return "\n[Monte Carlo Replications: " + inputFile + "]\n\nThe input file could not be read\n";
+            }
+
+            //the summaries are added in replication order, so the report only depends on the seed
+            for (SimulationSummary summary : wave) {
+                customersServed.add(summary.getTotalCustomersServed());
+                waitTime.add(summary.getAverageWaitTime());
+                preparationTime.add(summary.getAverageOrderPreparationTime());
+                simulationTime.add(summary.getTotalSimulationTime());
+            }
+            done = to;
+            tight = done >= MIN_REPLICATIONS && allTight();
+        }
+        return report(done, tight);
+    }
+
+    //Helper methods --------------------------------------------------------------
+    //Replication r runs with its own seed derived from the run seed, so the same run seed repeats the same replications
+    private SimulationSummary simulate(int replication) {
+        SimulationOptions replicationOptions = options.withSeed(RandomStreams.replicationSeed(options.seed, replication));
+        return new Simulation(replicationOptions).simulate(inputFile);
+    }
+
+    private boolean allTight() {
+        for (Metric metric : metrics) {
+            if (!metric.isTight(options.confidencePrecision)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private String report(int done, boolean tight) {
+        StringBuilder report = new StringBuilder();
+        report.append("\n[Monte Carlo Replications: ").append(inputFile).append("]\n\n")
+                .append("Replications: ").append(done).append(" of ").append(options.replications);
+        if (tight) {
+            report.append(String.format(Locale.ROOT, " (stopped early, every 95%% confidence interval is within %.2f%% of its mean)", options.confidencePrecision * 100));
+        }
+        report.append("\n\n")
+                .append(String.format(Locale.ROOT, "%-32s %12s %12s %12s %12s%n", "Metric", "Mean", "95% CI +/-", "Lower", "Upper"));
+        for (Metric metric : metrics) {
+            report.append(metric).append("\n");
+        }
+        return report.toString();
+    }
+}
@@ -1,15 +1,33 @@
-
-import java.util.concurrent.locks.Condition;
-import java.util.concurrent.locks.Lock;
-import java.util.concurrent.locks.ReentrantLock;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.concurrent.locks.LockSupport;
 
 class Order {
+    //The lifecycle of an order, an order only moves forward
+    enum Stage {
+        NEW, COOKING, READY, SERVED
+    }
+
+    //The whole state is one long: bits 0-1 are the stage, bits 2-31 the chef id and bits 32-61 the waiter id
+    private static final long STAGE_MASK = 0x3L;
+    private static final int CHEF_SHIFT = 2;
+    private static final int WAITER_SHIFT = 32;
+    private static final long ID_MASK = 0x3FFFFFFFL;
+    private static final Stage[] STAGES = Stage.values();
+    private static final VarHandle STATE;
+
+    static {
+        try {
+            STATE = MethodHandles.lookup().findVarHandle(Order.class, "state", long.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
     //Constructor --------------------------------------------------------------------
     private final String mealName;
     private final int mealTime;
     private final int customerId;
-    private int chefId;
-    private int waiterId;
 
     public Order(String mealName, int mealTime, int customerId) {
         this.mealName = mealName;
@@ -18,99 +36,114 @@ class Order {
     }
 
     //Global variables --------------------------------------------------------------
-    private final Lock lock = new ReentrantLock();
-    private final Condition orderReadyCondition = lock.newCondition();
-    private final Condition orderStartedCondition = lock.newCondition(); 
-    private final Condition orderServedCondition = lock.newCondition(); 
-    private boolean orderReady = false;
-    private boolean orderStart = false;
-    private boolean orderServed = false;
-
-    //This method is used by the customer to wait until the order is ready by the chef
-    public void waitUntilOrderReady() {
-        lock.lock();
-        try {
-            while (!orderReady) { //while loop to prevent spurious wakeup
-                orderReadyCondition.await();
-            }
-        } catch (Exception e) {
-            System.err.println("Exception in waitUntilOrderReady: " + e.getMessage());
-        } finally {
-            lock.unlock();
-        }
-    }
+    private volatile long state = 0; //Stage.NEW, no chef and no waiter
+    private volatile Thread waiter; //the customer thread parked on the order, if any
+    private volatile long placedAt; //the minute the order was placed, used by the scheduling policies
+    private volatile int batchSize = 1; //number of meals cooked together with this one (itself included)
+    private volatile int batchPosition = 0; //position of the order in its batch, the first order stands for the batch in the statistics
+    private volatile int tableIndex; //the table of the customer (starting at 1), waiters use it to plan a trip
 
     //This method is used by the customer to wait until the order is started by the chef
     public int waitUntilOrderStart() {
-        lock.lock();
-        try {
-            while (!orderStart) {
-                orderStartedCondition.await(); 
-            }
-        } catch (Exception e) {
-            System.err.println("Exception in waitUntilOrderStart: " + e.getMessage());
-        } finally {
-            lock.unlock();
-        }
-        return chefId;
+        await(Stage.COOKING, "waitUntilOrderStart");
+        return chefId(state);
+    }
+
+    //This method is used by the customer to wait until the order is ready by the chef
+    public void waitUntilOrderReady() {
+        await(Stage.READY, "waitUntilOrderReady");
     }
 
     //This method is used by the customer to wait until the order is served by the waiter
     public int waitUntilOrderServed() {
-        lock.lock();
-        try {
-            while (!orderServed) {
-                orderServedCondition.await(); 
-            }
-        } catch (Exception e) {
-            System.err.println("Exception in waitUntilOrderServed: " + e.getMessage());
-        } finally {
-            lock.unlock();
-        }
-        return waiterId;
+        await(Stage.SERVED, "waitUntilOrderServed");
+        return waiterId(state);
+    }
+
+    //This method is used to mark the order as started by the chef
+    public void markOrderStart(int chefId) {
+        advance(Stage.NEW, Stage.COOKING, chefId, CHEF_SHIFT, "markOrderStart");
     }
 
     //This method is used to mark the order as ready by the chef
     public void markOrderReady() {
-        lock.lock();
-        try {
-            orderReady = true;
-            orderReadyCondition.signal();
-        } catch (Exception e) {
-            System.err.println("Exception in markOrderReady: " + e.getMessage());
-        } finally {
-            lock.unlock();
-        }
+        advance(Stage.COOKING, Stage.READY, 0, 0, "markOrderReady");
     }
 
-    //This method is used to mark the order as started by the chef
-    public void markOrderStart(int chefId) {
-        lock.lock();
-        try {
-            orderStart = true;
-            this.chefId = chefId;
-            orderStartedCondition.signal();
-        } catch (Exception e) {
-            System.err.println("Exception in markOrderReady: " + e.getMessage());
-        } finally {
-            lock.unlock();
+    //This method is used to mark the order as served by the waiter
+    public void markOrderServed(int waiterId) {
+        advance(Stage.READY, Stage.SERVED, waiterId, WAITER_SHIFT, "markOrderServed");
+    }
+
+    //This method is used by the customer to record the minute the order is placed, before it is added to the order queue
+    public void setPlacedAt(long placedAt) {
+        this.placedAt = placedAt;
+    }
+
+    //This method is used by the chef to record the batch the order is cooked in, before the order is marked as started
+    public void setBatch(int batchSize, int batchPosition) {
+        this.batchSize = batchSize;
+        this.batchPosition = batchPosition;
+    }
+
+    //This method is used by the customer to record his table before the order is placed
+    public void setTableIndex(int tableIndex) {
+        this.tableIndex = tableIndex;
+    }
+
+    //Helper methods --------------------------------------------------------------
+    //Move the order from one stage to the next with a single CAS, then wake up the waiting customer
+    private void advance(Stage from, Stage to, int staffId, int shift, String method) {
+        while (true) {
+            long current = state;
+            if (stage(current) != from) {
+                System.err.println("Exception in " + method + ": order of customer " + customerId + " is " + stage(current) + ", expected " + from);
+                return;
+            }
+            long next = (current & ~STAGE_MASK) | to.ordinal() | ((staffId & ID_MASK) << shift);
+            if (STATE.compareAndSet(this, current, next)) {
+                break;
+            }
+        }
+
+        Thread parked = waiter;
+        if (parked != null) {
+            LockSupport.unpark(parked);
         }
     }
 
-    //This method is used to mark the order as served by the waiter
-    public void markOrderServed(int waiterId) {
-        lock.lock();
+    //Park the calling thread until the order has reached the stage (the loop also handles spurious wakeups)
+    private void await(Stage target, String method) {
+        if (stage(state).compareTo(target) >= 0) {
+            return;
+        }
+        waiter = Thread.currentThread();
         try {
-            orderServed = true;
-            this.waiterId = waiterId;
-            orderServedCondition.signal();
-        } catch (Exception e) {
-            System.err.println("Exception in markOrderReady: " + e.getMessage());
+            while (stage(state).compareTo(target) < 0) {
+                LockSupport.park(this);
+                if (Thread.interrupted()) {
+                    System.err.println("Exception in " + method + ": interrupted");
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
         } finally {
-            lock.unlock();
+            waiter = null;
         }
     }
 
+    private static Stage stage(long state) {
+        return STAGES[(int) (state & STAGE_MASK)];
+    }
+
+    private static int chefId(long state) {
+        return (int) ((state >>> CHEF_SHIFT) & ID_MASK);
+    }
+
+    private static int waiterId(long state) {
+        return (int) ((state >>> WAITER_SHIFT) & ID_MASK);
+    }
+
     //getters ------------------------------------------------------------------------
     public String getMealName() {
         return mealName;
@@ -124,6 +157,34 @@ class Order {
         return customerId;
     }
 
+    public Stage getStage() {
+        return stage(state);
+    }
+
+    public int getChefId() {
+        return chefId(state);
+    }
+
+    public int getWaiterId() {
+        return waiterId(state);
+    }
+
+    public long getPlacedAt() {
+        return placedAt;
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    public int getBatchPosition() {
+        return batchPosition;
+    }
+
+    public int getTableIndex() {
+        return tableIndex;
+    }
+
 
     @Override
     public String toString() {
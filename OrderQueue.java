@@ -0,0 +1,39 @@
+//The queue of orders waiting for a chef, the implementation decides which order is cooked next (see SchedulingPolicy)
+interface OrderQueue {
+
+    //This method adds an order placed by a customer, it is dropped if the shift has ended
+    void add(Order order);
+
+    //This method waits for the next order and returns null once the shift has ended and all orders are taken
+    Order remove();
+
+    //This method waits for the next order, puts it in batch[0] and fills the rest of `batch` with pending orders of the same meal
+    //(if the queue supports it), returns the number of orders taken or 0 once the shift has ended and all orders are taken
+    default int removeBatch(Order[] batch) {
+        batch[0] = remove();
+        return (batch[0] == null) ? 0 : 1;
+    }
+
+    //This method takes pending orders of the same meal as `first` without waiting and puts them in batch[offset..],
+    //returns the number of orders taken (always 0 for queues that can only hand out their head)
+    default int pollSameMeal(Order first, Order[] batch, int offset) {
+        return 0;
+    }
+
+    //This method returns the next order or null if there is none, it never waits
+    Order poll();
+
+    //This method ends the shift and wakes up every waiting chef
+    void endShift();
+
+    boolean isEmpty();
+
+    //This method creates the queue for the scheduling policy, capacity is the most orders that can wait at the same time.
+    //The ring buffer can only hand out its head, so batching (batchSize > 1) always uses the priority queue (FIFO keys are all equal)
+    static OrderQueue create(SchedulingPolicy policy, int capacity, double agingRate, int batchSize) {
+        if (policy == SchedulingPolicy.FIFO && batchSize <= 1) {
+            return new FifoOrderQueue(capacity);
+        }
+        return new PriorityOrderQueue(policy, agingRate);
+    }
+}
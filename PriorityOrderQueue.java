@@ -0,0 +1,133 @@
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+//Order queue that cooks the order with the smallest priority key first (SPT or SPT with aging).
+//The orders are kept in a lock-free skip list, so many chefs can take orders at the same time without a shared lock,
+//chefs only block on the lock and condition while the queue is empty (the same wait strategy as CircularBuffer).
+class PriorityOrderQueue implements OrderQueue {
+
+    //An order with its priority key, `sequence` keeps orders with the same key in the order they were placed
+    private static final class Entry implements Comparable<Entry> {
+        private final double priority;
+        private final long sequence;
+        private final Order order;
+
+        Entry(double priority, long sequence, Order order) {
+            this.priority = priority;
+            this.sequence = sequence;
+            this.order = order;
+        }
+
+        @Override
+        public int compareTo(Entry o) {
+            int byPriority = Double.compare(this.priority, o.priority);
+            return (byPriority != 0) ? byPriority : Long.compare(this.sequence, o.sequence);
+        }
+    }
+
+    //Constructor --------------------------------------------------------------------
+    private final SchedulingPolicy policy;
+    private final double agingRate;
+
+    public PriorityOrderQueue(SchedulingPolicy policy, double agingRate) {
+        this.policy = policy;
+        this.agingRate = agingRate;
+    }
+
+    //Global variables --------------------------------------------------------------
+    private final ConcurrentSkipListSet<Entry> orders = new ConcurrentSkipListSet<>();
+    private final AtomicLong sequence = new AtomicLong();
+    private volatile boolean endShift = false;
+
+    private final Lock lock = new ReentrantLock();
+    private final Condition notEmpty = lock.newCondition();
+    private final AtomicInteger waitingChefs = new AtomicInteger();
+
+    @Override
+    public void add(Order order) {
+        if (endShift) {
+            return;
+        }
+        orders.add(new Entry(policy.priority(order, agingRate), sequence.getAndIncrement(), order));
+        if (waitingChefs.get() > 0) {
+            lock.lock();
+            try {
+                notEmpty.signal();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    @Override
+    public Order remove() {
+        Order order = poll();
+        if (order != null) {
+            return order;
+        }
+
+        lock.lock();
+        waitingChefs.incrementAndGet();
+        try {
+            while ((order = poll()) == null && !endShift) {
+                notEmpty.await();
+            }
+        } catch (InterruptedException e) {
+            System.err.println("Exception in remove method: " + e.getMessage());
+            Thread.currentThread().interrupt();
+        } finally {
+            waitingChefs.decrementAndGet();
+            lock.unlock();
+        }
+        return order;
+    }
+
+    @Override
+    public int removeBatch(Order[] batch) {
+        batch[0] = remove();
+        if (batch[0] == null) {
+            return 0;
+        }
+        return 1 + pollSameMeal(batch[0], batch, 1);
+    }
+
+    //The same-meal orders are taken in queue order, removing an entry only succeeds for one chef, so two chefs never share an order
+    @Override
+    public int pollSameMeal(Order first, Order[] batch, int offset) {
+        int count = offset;
+        for (Iterator<Entry> it = orders.iterator(); it.hasNext() && count < batch.length;) {
+            Entry entry = it.next();
+            if (entry.order.getMealName().equals(first.getMealName()) && orders.remove(entry)) {
+                batch[count++] = entry.order;
+            }
+        }
+        return count - offset;
+    }
+
+    @Override
+    public Order poll() {
+        Entry entry = orders.pollFirst();
+        return (entry != null) ? entry.order : null;
+    }
+
+    @Override
+    public void endShift() {
+        endShift = true;
+        lock.lock();
+        try {
+            notEmpty.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return orders.isEmpty();
+    }
+}
@@ -0,0 +1,31 @@
+import java.util.SplittableRandom;
+
+//This class derives the random stream of every actor from the run-level seed.
+//A stream only depends on the seed, the kind of actor and its id (not on the order the actors are created in),
+//so two runs with the same seed and input draw the same eating and serving times for the same customers and waiters.
+final class RandomStreams {
+    static final int CUSTOMER = 1;
+    static final int WAITER = 2;
+    static final int REPLICATION = 3;
+    static final int ARRIVALS = 4;
+
+    private RandomStreams() {
+    }
+
+    //This method returns the stream of one actor, every actor owns its stream so no generator is shared between threads
+    static SplittableRandom forActor(long seed, int kind, long id) {
+        return new SplittableRandom(mix(mix(seed + kind) + id));
+    }
+
+    //This method returns the seed of one Monte Carlo replication
+    static long replicationSeed(long seed, long replication) {
+        return mix(mix(seed + REPLICATION) + replication);
+    }
+
+    //The SplitMix64 finalizer, neighbouring ids give unrelated seeds
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
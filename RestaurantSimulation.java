@@ -1,311 +1,285 @@
-
-import java.io.BufferedReader;
-import java.io.FileNotFoundException;
-import java.io.FileReader;
-import java.io.FileWriter;
-import java.io.IOException;
-import java.time.Duration;
-import java.time.LocalTime;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
-import java.util.PriorityQueue;
-import java.util.concurrent.TimeUnit;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
 
+//This class is the entry point, it runs every scenario file as its own Simulation in parallel on a bounded pool
 class RestaurantSimulation {
 
-    static int numChefs;
-    static int numWaiters;
-    static int numTables;
-
-    static PriorityQueue<Customer> customerArrivalQueue = new PriorityQueue<>();
-    static Map<Integer, CustomerData> customerServingData = new HashMap<>();
-    static HashMap<String, Integer> meals = new HashMap<>();
-
-    static Chef[] chefs;
-    static Waiter[] waiters;
-
-    static CircularBuffer<Order> orderBuffer;
-    static CircularBuffer<Order> readyOrders;
-    static BoundedQueue<Customer> tableQueue;
-
-    static List<Thread> customerThreads = new ArrayList<>();
-    static List<Thread> chefThreads = new ArrayList<>();
-    static List<Thread> waiterThreads = new ArrayList<>();
-
-    public static void main(String[] args) throws FileNotFoundException {
-        String[] inputFiles = {"restaurant_simulation_input1.txt", "restaurant_simulation_input2.txt", "restaurant_simulation_input3.txt"};
-
-        for (int i = 0; i < inputFiles.length; i++) {
-            System.out.println("\n[Simulation " + (i + 1) + "]\n");
-            //Read input files 
-            readAndInitializeData(inputFiles[i]);
-
-            //Start simulation
-            startThreads();
-
-            //Wait for threads
-            waitForThreads();
+    static final String[] DEFAULT_INPUT_FILES = {"restaurant_simulation_input1.txt", "restaurant_simulation_input2.txt", "restaurant_simulation_input3.txt"};
 
-            //Write the customer serving data to the output file
-            writeToOutputFile("restaurant_simulation_output%d.txt".formatted(i + 1));
-
-            //Reset everything
-            reset();
+    public static void main(String[] args) {
+        List<String> inputFiles = new ArrayList<>();
+        SimulationOptions options = readArguments(args, inputFiles);
+        if (options.verbosity != Verbosity.OFF) {
+            System.out.println("Random seed: " + options.seed + " (repeat the run with --seed=" + options.seed + ")");
+        }
+        if (inputFiles.isEmpty()) {
+            inputFiles.addAll(List.of(DEFAULT_INPUT_FILES));
         }
 
+        if (options.sweep) {
+            runSweeps(inputFiles, options);
+        } else if (options.replications > 0) {
+            runReplications(inputFiles, options);
+        } else {
+            runScenarios(inputFiles, options);
+        }
     }
 
-    public static void readAndInitializeData(String inputFile) {
+    //This method runs all scenarios at the same time, so the batch takes as long as the slowest scenario.
+    //With more than one scenario every trace line starts with the scenario number, and every scenario prints its header
+    //and summary in one piece when it is done
+    public static void runScenarios(List<String> inputFiles, SimulationOptions options) {
+        int poolSize = Math.min(inputFiles.size(), Runtime.getRuntime().availableProcessors());
+        ExecutorService pool = Executors.newFixedThreadPool(Math.max(poolSize, 1));
         try {
-            FileReader fr = new FileReader(inputFile);
-            BufferedReader br = new BufferedReader(fr);
-
-            readConfig(br);
-
-            orderBuffer = new CircularBuffer<>(numTables);
-            readyOrders = new CircularBuffer<>(numTables);
-            tableQueue = new BoundedQueue<>(numTables);
-            chefs = new Chef[numChefs];
-            waiters = new Waiter[numWaiters];
+            List<Future<?>> scenarios = new ArrayList<>();
+            for (int i = 0; i < inputFiles.size(); i++) {
+                String inputFile = inputFiles.get(i);
+                String outputFile = toOutputFile(inputFile, i + 1);
+                int number = i + 1;
+                String header = "\n[Simulation " + number + "]\n";
+                //every scenario of a batch writes its generated customers to its own dump file
+                SimulationOptions scenarioOptions = (options.dumpFile != null && inputFiles.size() > 1)
+                        ? options.withDumpFile(toDumpFile(options.dumpFile, number)) : options;
+                scenarios.add(pool.submit(() -> {
+                    Simulation simulation = new Simulation(scenarioOptions);
+                    if (inputFiles.size() > 1) {
+                        simulation.setTracePrefix("[Simulation " + number + "] ");
+                    }
+                    SimulationSummary summary = simulation.run(inputFile, outputFile);
+                    if (summary != null && options.verbosity != Verbosity.OFF) {
+                        System.out.println(header + "\n" + summary);
+                    }
+                }));
+            }
+            //a scenario that fails does not stop the wait for the others
+            for (Future<?> scenario : scenarios) {
+                try {
+                    scenario.get();
+                } catch (Exception e) {
+                    System.err.println("Exception in main method (Running scenarios): " + e.getMessage());
+                }
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
 
-            readCustomers(br);
+    //This method runs a staffing sweep for each scenario, the combinations of one sweep already use all cores
+    public static void runSweeps(List<String> inputFiles, SimulationOptions options) {
+        for (String inputFile : inputFiles) {
+            System.out.println(new StaffingSweep(inputFile, options).run());
+        }
+    }
 
-        } catch (Exception e) {
-            System.err.println("Exception in main method (Reading input files): " + e.getMessage());
+    //This method runs the Monte Carlo replications of each scenario, the replications of one scenario already use all cores
+    public static void runReplications(List<String> inputFiles, SimulationOptions options) {
+        for (String inputFile : inputFiles) {
+            System.out.println(new MonteCarloReplications(inputFile, options).run());
         }
     }
 
-    public static void startThreads() {
-        try {
-            arrivalTimeToDelay();
+    //Helper methods --------------------------------------------------------------
+    //restaurant_simulation_inputN.txt is written to restaurant_simulation_outputN.txt, any other file name gets a numbered output file
+    public static String toOutputFile(String inputFile, int number) {
+        if (inputFile.contains("input")) {
+            return inputFile.replace("input", "output");
+        }
+        return String.format(Locale.ROOT, "restaurant_simulation_output%d.txt", number);
+    }
 
-            for (Customer customer : customerArrivalQueue) {
-                Thread thread = new Thread(customer);
-                customerThreads.add(thread);
-                thread.start();
+    //The dump file of scenario N gets the number before its extension, e.g. customers.txt becomes customers2.txt
+    public static String toDumpFile(String dumpFile, int number) {
+        int extension = dumpFile.lastIndexOf('.');
+        if (extension <= Math.max(dumpFile.lastIndexOf('/'), dumpFile.lastIndexOf('\\'))) {
+            return dumpFile + number;
+        }
+        return dumpFile.substring(0, extension) + number + dumpFile.substring(extension);
+    }
 
+    //Read the command line options, e.g. --engine=event or --sweep --chefs=1-4, every other argument is an input file
+    public static SimulationOptions readArguments(String[] args, List<String> inputFiles) {
+        SimulationOptions options = new SimulationOptions();
+        for (String arg : args) {
+            if (!arg.startsWith("--")) {
+                inputFiles.add(arg);
+                continue;
             }
-
-            for (int i = 0; i < numChefs; i++) {
-                chefs[i] = new Chef(i + 1, orderBuffer, readyOrders);
-                chefThreads.add(chefs[i]);
-                chefs[i].start();
+            String[] option = arg.split("=", 2);
+            if (option.length < 2 && !option[0].equals("--sweep")) {
+                System.err.println("Missing value for " + option[0] + ", using the default");
+                continue;
             }
-
-            for (int i = 0; i < numWaiters; i++) {
-                waiters[i] = new Waiter(i + 1, readyOrders);
-                waiterThreads.add(waiters[i]);
-                waiters[i].start();
+            try {
+                switch (option[0]) {
+                    case "--engine" ->
+                        options.engine = option[1];
+                    case "--verbosity" ->
+                        options.verbosity = readVerbosity(option[1]);
+                    case "--speedup" ->
+                        options.speedup = option[1].equals("max") ? Double.POSITIVE_INFINITY : Double.parseDouble(option[1]);
+                    case "--deadline" ->
+                        options.deadline = Long.parseLong(option[1]);
+                    case "--time-limit" ->
+                        options.timeLimit = Long.parseLong(option[1]);
+                    case "--table-sections" ->
+                        options.tableSections = Integer.parseInt(option[1]);
+                    case "--scheduling" ->
+                        options.scheduling = readSchedulingPolicy(option[1]);
+                    case "--aging-rate" ->
+                        options.agingRate = Double.parseDouble(option[1]);
+                    case "--batch-size" ->
+                        options.batchSize = Math.max(1, Integer.parseInt(option[1]));
+                    case "--batch-cost" ->
+                        options.batchExtraCost = Double.parseDouble(option[1]);
+                    case "--plates" ->
+                        options.plateCapacity = Math.max(1, Integer.parseInt(option[1]));
+                    case "--plate-time" ->
+                        options.plateServeTime = Integer.parseInt(option[1]);
+                    case "--serving-radius" ->
+                        options.servingRadius = Integer.parseInt(option[1]);
+                    case "--work-stealing" ->
+                        options.workStealing = !option[1].equals("off");
+                    case "--seed" ->
+                        options.seed = Long.parseLong(option[1]);
+                    case "--eating-time" ->
+                        options.eatingTime = readTimeDistribution(option[1]);
+                    case "--serving-time" ->
+                        options.servingTime = readTimeDistribution(option[1]);
+                    case "--replications" ->
+                        options.replications = Integer.parseInt(option[1]);
+                    case "--ci-precision" ->
+                        options.confidencePrecision = Double.parseDouble(option[1]);
+                    case "--generate" ->
+                        options.arrivalProfile = readArrivalProfile(option[1]);
+                    case "--meal-weights" ->
+                        options.mealWeights = readMealWeights(option[1]);
+                    case "--customers" ->
+                        options.maxCustomers = Long.parseLong(option[1]);
+                    case "--dump" ->
+                        options.dumpFile = option[1];
+                    case "--sweep" ->
+                        options.sweep = true;
+                    case "--chefs" ->
+                        options.sweepChefs = readRange(option[1]);
+                    case "--waiters" ->
+                        options.sweepWaiters = readRange(option[1]);
+                    case "--tables" ->
+                        options.sweepTables = readRange(option[1]);
+                    case "--target-wait" ->
+                        options.targetWaitTime = Double.parseDouble(option[1]);
+                    case "--chef-cost" ->
+                        options.chefCost = Integer.parseInt(option[1]);
+                    case "--waiter-cost" ->
+                        options.waiterCost = Integer.parseInt(option[1]);
+                    case "--table-cost" ->
+                        options.tableCost = Integer.parseInt(option[1]);
+                    default ->
+                        System.err.println("Unknown option: " + arg);
+                }
+            } catch (NumberFormatException e) {
+                System.err.println("Invalid number in " + arg + ", using the default");
             }
-        } catch (Exception e) {
-            System.err.println("Exception in main method (Simulation): " + e.getMessage());
         }
-    }
-
-    public static void waitForThreads() {
-        try {
-            for (int i = 0; i < customerThreads.size(); i++) {
-                Thread thread = customerThreads.get(i);
-                thread.join(TimeUnit.MINUTES.toMillis(5)); // Add timeout of 5 minutes for each thread
-                if (thread.isAlive()) {
-                    System.out.println("WARNING: Customer thread " + (i + 1) + " did not finish within timeout, Thread state: " + thread.getState());
-                    printThreadInfo();
-                }
+        if (options.speedup <= 0) {
+            System.err.println("The speedup must be positive, using 10");
+            options.speedup = 10;
+        }
+        if (Double.isInfinite(options.speedup)) {
+            options.engine = "event"; //an unbounded speedup is the virtual clock of the event engine
+        }
+        switch (options.engine) {
+            case "threads", "event" -> {
             }
-
-            if (chefs == null) {
-                System.out.println("Error: Chefs array is null.");
-            } else {
-                // End shifts for all chefs
-                for (Chef chef : chefs) {
-                    chef.endShift();
-                }
-                // Wait for chef threads with timeout
-                for (int i = 0; i < chefThreads.size(); i++) {
-                    Thread thread = chefThreads.get(i);
-                    thread.join(TimeUnit.MINUTES.toMillis(5)); // Add timeout of 5 minutes for each thread
-                    if (thread.isAlive()) {
-                        System.out.println("WARNING: Chef thread " + (i + 1) + " did not finish within timeout, Thread state: " + thread.getState());
-                        printThreadInfo();
-                    }
+            case "virtual" -> {
+                try {
+                    options.actorThreadFactory = virtualThreadFactory();
+                } catch (ReflectiveOperationException e) {
+                    System.err.println("Virtual threads need Java 21 or newer, using threads");
+                    options.engine = "threads";
                 }
             }
-
-            if (waiters == null) {
-                System.out.println("Error: Waiters array is null.");
-            } else {
-                // End shifts for all waiters
-                for (Waiter waiter : waiters) {
-                    waiter.endShift();
-                }
-                // Wait for waiters threads with timeout
-                for (int i = 0; i < waiterThreads.size(); i++) {
-                    Thread thread = waiterThreads.get(i);
-                    thread.join(TimeUnit.MINUTES.toMillis(5)); // Add timeout of 10 minutes for each thread
-                    if (thread.isAlive()) {
-                        System.out.println("WARNING: Waiter thread " + (i + 1) + " did not finish within timeout, Thread state: " + thread.getState());
-                        printThreadInfo();
-                    }
-                }
+            default -> {
+                System.err.println("Unknown engine " + options.engine + ", using threads");
+                options.engine = "threads";
             }
-        } catch (Exception e) {
-            System.err.println("Exception in main method (Waiting for threads): " + e.getMessage());
         }
+        return options;
     }
 
-    public static void reset() {
-        // Clear all thread lists
-        customerThreads.clear();
-        chefThreads.clear();
-        waiterThreads.clear();
-
-        // Clear customer arrival queue
-        customerArrivalQueue.clear();
-
-        // Reinitialize buffers and arrays
-        orderBuffer = new CircularBuffer<>(numTables);
-        readyOrders = new CircularBuffer<>(numTables);
-        tableQueue = new BoundedQueue<>(numTables);
-        chefs = new Chef[numChefs];
-        waiters = new Waiter[numWaiters];
-
-        //reset semaphores for chefs and waiters
-        Waiter.resetSemaphore();
-        Chef.resetSemaphore();
-    }
-
-    public static void writeToOutputFile(String outputFile) {
-        try {
-            FileWriter writer = new FileWriter(outputFile);
-
-            writer.write("Simulation Started with %d Chefs, %d Waiters, and %d Tables.\n\n".formatted(numChefs, numWaiters, numTables));
-            
-            for (CustomerData data : customerServingData.values()) {
-                writer.write(data.toString());
-            }
-
-            //Write the summary of the simulation
-            writer.write(summaryOfSimulation());
-            System.out.println(summaryOfSimulation());
-
-            writer.close();
-        } catch (IOException e) {
-            System.err.println("Error writing to output file: " + e.getMessage());
+    //A range is written as from-to (e.g. 1-4) or as a single number, a restaurant needs at least one of everything,
+    //so a range starting below 1 is rejected and the value of the input file is used
+    public static int[] readRange(String value) {
+        String[] bounds = value.split("-");
+        int from = Integer.parseInt(bounds[0]);
+        int to = (bounds.length > 1) ? Integer.parseInt(bounds[1]) : from;
+        if (from < 1 || to < from) {
+            System.err.println("Invalid range " + value + ", ranges start at 1, using the input file");
+            return null;
         }
+        return new int[]{from, to};
     }
 
-    public static String summaryOfSimulation() {
-        double totalWaitTime = 0;
-        double totalOrderPreparationTime = 0;
-
-        for (CustomerData data : customerServingData.values()) {
-            totalWaitTime += Duration.between(data.getEvents().get("Arrival"), data.getEvents().get("Seated")).toMinutes();
-            totalOrderPreparationTime += Duration.between(data.getEvents().get("Order"), data.getEvents().get("ChefFinish")).toMinutes();
+    //A scheduling policy is written in lower case with dashes, e.g. spt-aging
+    public static SchedulingPolicy readSchedulingPolicy(String value) {
+        try {
+            return SchedulingPolicy.valueOf(value.toUpperCase().replace('-', '_'));
+        } catch (IllegalArgumentException e) {
+            System.err.println("Unknown scheduling policy " + value + ", using fifo");
+            return SchedulingPolicy.FIFO;
         }
-
-        int totalCustomersServed = customerServingData.size();
-        int averageWaitTime = (int) (totalWaitTime / totalCustomersServed);
-        int averageOrderPreparationTime = (int) (totalOrderPreparationTime / totalCustomersServed);
-        LocalTime firstArrival = customerServingData.get(0).getEvents().get("Arrival");
-        LocalTime lastLeave = customerServingData.get(customerServingData.size() - 1).getEvents().get("Leave");
-        long totalSimulationTime = Duration.between(firstArrival, lastLeave).toMinutes();
-
-        StringBuilder summary = new StringBuilder();
-        summary.append("\n[End of Simulation]\n")
-                .append("\nSummary:\n")
-                .append("- Total Customers Served: ").append(totalCustomersServed).append("\n")
-                .append("- Average Wait Time for Table: ").append(averageWaitTime).append(" Minutes\n")
-                .append("- Average Order Preparation Time: ").append(averageOrderPreparationTime).append(" Minutes\n")
-                .append("- Total Simulation Time: ").append(totalSimulationTime).append(" Minutes\n");
-
-        return summary.toString();
     }
 
-    //Helper methods --------------------------------------------------------------
-    //This method is used to get the delay of each customer based on the arrival time of the first customer
-    public static void arrivalTimeToDelay() {
-        LocalTime starTime = customerArrivalQueue.peek().getArrivalTime();
-        for (Customer customer : customerArrivalQueue) {
-            LocalTime arrivalTime = customer.getArrivalTime();
-            int delay = (int) (arrivalTime.getMinute() - starTime.getMinute());
-            customer.setDelay(delay);
+    public static ArrivalProfile readArrivalProfile(String value) {
+        try {
+            return ArrivalProfile.parse(value);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage() + ", reading the customers from the input file");
+            return null;
         }
     }
 
-    //Print the stack trace of all threads to figure out the state of each thread in case of a deadlock or starvation
-    public static void printThreadInfo() {
-        Thread.getAllStackTraces().keySet().forEach(thread -> {
-            System.out.println("\nThread: " + thread.getName());
-            System.out.println("State: " + thread.getState());
-            for (StackTraceElement stackTrace : thread.getStackTrace()) {
-                System.out.println("    at " + stackTrace);
+    //Meal weights are written as Name:weight pairs separated by commas, e.g. Burger:3,Pizza:1
+    public static HashMap<String, Double> readMealWeights(String value) {
+        HashMap<String, Double> weights = new HashMap<>();
+        for (String pair : value.split(",")) {
+            String[] weight = pair.split(":", 2);
+            if (weight.length < 2) {
+                throw new NumberFormatException("missing weight for " + weight[0]);
             }
-        });
+            weights.put(weight[0], Double.parseDouble(weight[1]));
+        }
+        return weights;
     }
 
-    //Read the configuration and meals from the input file
-    public static void readConfig(BufferedReader br) throws Exception {
+    public static Verbosity readVerbosity(String value) {
         try {
-            String firstLine = br.readLine();
-            String[] firstLineValues = firstLine.split(" ");
-            for (String value1 : firstLineValues) {
-                String[] value = value1.split("=");
-                switch (value[0]) {
-                    case "NC" ->
-                        numChefs = Integer.parseInt(value[1]);
-                    case "NW" ->
-                        numWaiters = Integer.parseInt(value[1]);
-                    case "NT" ->
-                        numTables = Integer.parseInt(value[1]);
-                }
-            }
-            String secondLine = br.readLine();
-            String[] secondLineValues = secondLine.split(" ");
-            for (String value : secondLineValues) {
-                String[] meal = value.split("=");
-                String mealName = meal[0];
-                int mealTime = Integer.parseInt(meal[1].split(":")[1]);
-                meals.put(mealName, mealTime);
-            }
-        } catch (Exception e) {
-            throw e;
+            return Verbosity.valueOf(value.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            System.err.println("Unknown verbosity " + value + ", using full");
+            return Verbosity.FULL;
         }
     }
 
-    //Read the customers from the input file
-    public static void readCustomers(BufferedReader br) throws Exception {
+    public static TimeDistribution readTimeDistribution(String value) {
         try {
-            String line;
-            while ((line = br.readLine()) != null) {
-                String[] values = line.split(" ");
-                //Customer ID, Arrival Time, Order
-                Integer customerId = null;
-                LocalTime arrivalTime = null;
-                String order = null;
-                for (String value : values) {
-                    String[] data = value.split("=");
-                    switch (data[0]) {
-                        case "CustomerID" ->
-                            customerId = Integer.valueOf(data[1]);
-                        case "ArrivalTime" ->
-                            arrivalTime = LocalTime.of(Integer.parseInt(data[1].split(":")[0]), Integer.parseInt(data[1].split(":")[1]));
-                        case "Order" ->
-                            order = data[1];
-                    }
-                }
-                if (customerId == null || arrivalTime == null || order == null) {
-                    throw new Exception("Invalid data");
-                }
-                int preparingTime = meals.get(order);
-                Order newOrder = new Order(order, preparingTime, customerId);
-                Customer customer = new Customer(customerId, arrivalTime, newOrder, orderBuffer, tableQueue, customerServingData);
-                customerArrivalQueue.add(customer);
-            }
-        } catch (Exception e) {
-            throw e;
+            return TimeDistribution.valueOf(value.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            System.err.println("Unknown time distribution " + value + ", using uniform");
+            return TimeDistribution.UNIFORM;
         }
     }
 
+    //Thread.ofVirtual() only exists from Java 21 on, so it is looked up at runtime to keep the code compiling on Java 17.
+    //Each actor then gets its own virtual thread (one virtual thread per task) instead of a native thread.
+    public static ThreadFactory virtualThreadFactory() throws ReflectiveOperationException {
+        Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+        return (ThreadFactory) Class.forName("java.lang.Thread$Builder").getMethod("factory").invoke(builder);
+    }
 }
@@ -0,0 +1,178 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.PriorityQueue;
+import java.util.concurrent.ArrayBlockingQueue;
+
+//This class writes the customer serving data while the simulation is still running.
+//Customers hand their CustomerData over when they leave, a background thread formats it into a reused buffer
+//and writes it through a file channel, so nothing is kept for the customers that have already been written.
+//Blocks are written in arrival order (like the old output), customers that leave before an earlier customer wait in `pending`.
+//The queue to the background thread is bounded, a customer that leaves while the writer is behind waits for a free slot,
+//so the memory does not grow with the number of customers. `pending` only holds customers that left while an earlier
+//customer was still in the restaurant.
+class ResultWriter {
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final int QUEUE_CAPACITY = 4096; //results that can wait for the background thread
+
+    //A finished customer together with its position in the arrival stream
+    private static final class Result {
+        private final long sequence;
+        private final CustomerData data;
+
+        Result(long sequence, CustomerData data) {
+            this.sequence = sequence;
+            this.data = data;
+        }
+    }
+
+    private static final Result END_OF_RESULTS = new Result(-1, null);
+
+    //Constructor --------------------------------------------------------------------
+    private final FileChannel channel;
+    private final Thread drainer;
+
+    //outputFile may be null, then only the statistics are collected (used by the StaffingSweep)
+    public ResultWriter(String outputFile, String header) throws IOException {
+        if (outputFile == null) {
+            channel = null;
+            drainer = null;
+            return;
+        }
+        channel = FileChannel.open(Path.of(outputFile), StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        text.append(header);
+        drainer = new Thread(this::drain, "result-writer");
+        drainer.setDaemon(true);
+        drainer.start();
+    }
+
+    //Global variables --------------------------------------------------------------
+    private final ArrayBlockingQueue<Result> queue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+    private final PriorityQueue<Result> pending = new PriorityQueue<>((a, b) -> Long.compare(a.sequence, b.sequence));
+    private final StringBuilder text = new StringBuilder(BUFFER_SIZE);
+    private final ByteBuffer bytes = ByteBuffer.allocateDirect(BUFFER_SIZE);
+    private final CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder()
+            .onMalformedInput(CodingErrorAction.REPLACE)
+            .onUnmappableCharacter(CodingErrorAction.REPLACE);
+    private long nextSequence = 0;
+    private IOException writeError;
+
+    private final SimulationStatistics statistics = new SimulationStatistics();
+
+    //add method --------------------------------------------------------------------
+    //This method is called by every customer when he leaves, sequence is his position in the arrival stream (starting at 0).
+    //It waits while the queue is full
+    public void add(long sequence, CustomerData data) {
+        statistics.record(data);
+        if (drainer != null) {
+            try {
+                queue.put(new Result(sequence, data));
+            } catch (InterruptedException e) {
+                System.err.println("Exception in result writer add method: interrupted, customer " + data.getCustomerId() + " is not written");
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    //This method waits until every customer has been written, appends the summary and closes the file
+    public SimulationSummary close() throws IOException {
+        if (drainer == null) {
+            return statistics.summarize();
+        }
+
+        try {
+            queue.put(END_OF_RESULTS);
+            drainer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while writing results", e);
+        }
+        flushPending();
+        SimulationSummary summary = statistics.summarize();
+        text.append(summary);
+        try {
+            flushText();
+        } finally {
+            channel.close();
+        }
+        if (writeError != null) {
+            throw writeError;
+        }
+        return summary;
+    }
+
+    //Helper methods --------------------------------------------------------------
+    //The background thread takes results from the queue until the end marker
+    private void drain() {
+        try {
+            while (true) {
+                Result result = queue.take();
+                if (result == END_OF_RESULTS) {
+                    break;
+                }
+                consume(result);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void consume(Result result) {
+        pending.add(result);
+        while (!pending.isEmpty() && pending.peek().sequence == nextSequence) {
+            write(pending.poll().data);
+            nextSequence++;
+        }
+    }
+
+    //Customers whose predecessors never arrived (e.g. a run that timed out) are written at the end
+    private void flushPending() {
+        while (!pending.isEmpty()) {
+            write(pending.poll().data);
+        }
+    }
+
+    private void write(CustomerData data) {
+        if (channel == null) {
+            return;
+        }
+        data.appendTo(text);
+        if (text.length() >= BUFFER_SIZE) {
+            try {
+                flushText();
+            } catch (IOException e) {
+                writeError = e;
+            }
+        }
+    }
+
+    //The text is encoded as UTF-8 straight into the reused byte buffer (meal names come from the input file and may not be ASCII),
+    //the buffer is written out whenever it is full
+    private void flushText() throws IOException {
+        CharBuffer chars = CharBuffer.wrap(text);
+        encoder.reset();
+        while (encoder.encode(chars, bytes, true) == CoderResult.OVERFLOW) {
+            writeBytes();
+        }
+        while (encoder.flush(bytes) == CoderResult.OVERFLOW) {
+            writeBytes();
+        }
+        text.setLength(0);
+        writeBytes();
+    }
+
+    private void writeBytes() throws IOException {
+        bytes.flip();
+        while (bytes.hasRemaining()) {
+            channel.write(bytes);
+        }
+        bytes.clear();
+    }
+}
@@ -0,0 +1,25 @@
+//The order in which chefs pick up pending orders. Every policy gives an order a priority key when it is placed,
+//the order with the smallest key is cooked first and orders with the same key are cooked in the order they were placed
+enum SchedulingPolicy {
+    //first come, first served (the original behaviour)
+    FIFO,
+    //shortest preparation time first, quick meals do not wait behind long ones
+    SPT,
+    //shortest preparation time first with aging, an order gains `agingRate` minutes of priority for every minute it waits,
+    //so a long meal is overtaken for at most (mealTime difference / agingRate) minutes and can not starve
+    SPT_AGING;
+
+    //This method returns the priority key of an order placed at minute `placedAt`.
+    //For aging the priority at time t is mealTime - agingRate * (t - placedAt), t is the same for all waiting orders,
+    //so comparing mealTime + agingRate * placedAt gives the same order and the key never has to change while the order waits.
+    double priority(Order order, double agingRate) {
+        return switch (this) {
+            case FIFO ->
+                0;
+            case SPT ->
+                order.getMealTime();
+            case SPT_AGING ->
+                order.getMealTime() + agingRate * order.getPlacedAt();
+        };
+    }
+}
@@ -0,0 +1,140 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+//This class decides when a threaded run is over.
+//It counts the customers still in the restaurant (plus one while customers are still arriving), the last one to leave
+//opens a latch, so the simulation goes on the moment the last customer has left instead of joining every thread in turn.
+//Then the shift of the whole staff ends at once (one endShift on each shared queue wakes every waiting chef and waiter).
+//The run has a deadline that moves with its progress: when no customer has left for the whole stall time the run is stuck.
+//An optional time limit is a second, fixed deadline for the whole run, counted from the start of the coordinator,
+//no customer is let in after it.
+//At the first deadline the threads that are still alive are reported once with their stacks and given up. They are daemon threads,
+//so a stuck run can not keep the JVM alive.
+class ShiftCoordinator {
+    private static final long SHUTDOWN_GRACE_NANOS = TimeUnit.SECONDS.toNanos(1); //time the staff gets to leave after endShift
+
+    //Constructor --------------------------------------------------------------------
+    private final ThreadFactory threadFactory;
+    private final long limitNanos; //0 has no time limit
+
+    public ShiftCoordinator(ThreadFactory threadFactory, long limitNanos) {
+        this.threadFactory = threadFactory;
+        this.limitNanos = limitNanos;
+    }
+
+    //Global variables --------------------------------------------------------------
+    private final long startedAt = System.nanoTime();
+    private final AtomicLong inRestaurant = new AtomicLong(1); //customers that have not left, plus one until arrivalsClosed()
+    private final CountDownLatch allLeft = new CountDownLatch(1);
+    private volatile long lastProgress = System.nanoTime(); //when the last customer left (or the arrivals closed)
+    private final Set<Thread> customerThreads = ConcurrentHashMap.newKeySet(); //only the customers that have not left
+    private final List<Thread> staffThreads = new ArrayList<>();
+
+    //This method starts a chef or a waiter
+    public void startStaff(Runnable staff) {
+        Thread thread = newThread(staff);
+        staffThreads.add(thread);
+        thread.start();
+    }
+
+    //This method starts a customer, he is counted until his run method returns
+    public void startCustomer(Runnable customer) {
+        inRestaurant.incrementAndGet();
+        Thread thread = newThread(() -> {
+            try {
+                customer.run();
+            } finally {
+                customerThreads.remove(Thread.currentThread());
+                leave();
+            }
+        });
+        customerThreads.add(thread);
+        thread.start();
+    }
+
+    //This method tells whether the given System.nanoTime value is within the time limit of the run
+    public boolean isWithinTimeLimit(long nanoTime) {
+        return limitNanos <= 0 || nanoTime - (startedAt + limitNanos) <= 0;
+    }
+
+    //This method is called once every customer has been started, the run can only end after it
+    public void arrivalsClosed() {
+        leave();
+    }
+
+    //This method waits until the last customer has left, until no customer has left for `stallNanos`
+    //or until the time limit is reached, then runs `endShift` to end the shift of the whole staff and waits for the staff to leave.
+    //Returns false if a thread was still alive at the deadline, those threads are reported.
+    public boolean awaitEndOfShift(long stallNanos, Runnable endShift) throws InterruptedException {
+        long deadline = nextDeadline(stallNanos);
+        while (!allLeft.await(deadline - System.nanoTime(), TimeUnit.NANOSECONDS)) {
+            long next = nextDeadline(stallNanos);
+            if (next - deadline <= 0) {
+                break; //no customer left since the deadline was set, or the time limit is reached
+            }
+            deadline = next;
+        }
+        endShift.run();
+
+        //the staff only needs a moment once the shift has ended, even when the deadline has already passed
+        long staffDeadline = Math.max(deadline, System.nanoTime() + SHUTDOWN_GRACE_NANOS);
+        for (Thread thread : staffThreads) {
+            TimeUnit.NANOSECONDS.timedJoin(thread, staffDeadline - System.nanoTime());
+        }
+
+        List<Thread> stuck = new ArrayList<>(customerThreads);
+        int stuckCustomers = stuck.size();
+        for (Thread thread : staffThreads) {
+            if (thread.isAlive()) {
+                stuck.add(thread);
+            }
+        }
+        if (stuck.isEmpty()) {
+            return true;
+        }
+        printStuckThreads(stuck, stuckCustomers);
+        return false;
+    }
+
+    //Helper methods --------------------------------------------------------------
+    private Thread newThread(Runnable runnable) {
+        Thread thread = threadFactory.newThread(runnable);
+        thread.setDaemon(true);
+        return thread;
+    }
+
+    //the end of the stall window, or the end of the time limit when that comes first
+    private long nextDeadline(long stallNanos) {
+        long deadline = lastProgress + stallNanos;
+        if (!isWithinTimeLimit(deadline)) {
+            deadline = startedAt + limitNanos;
+        }
+        return deadline;
+    }
+
+    private void leave() {
+        lastProgress = System.nanoTime();
+        if (inRestaurant.decrementAndGet() == 0) {
+            allLeft.countDown();
+        }
+    }
+
+    //Print the stack trace of the threads that did not finish, to figure out the deadlock or starvation
+    private void printStuckThreads(List<Thread> stuck, int stuckCustomers) {
+        System.out.println("WARNING: the simulation did not end before its deadline (stall window or time limit), " + stuckCustomers + " customer and "
+                + (stuck.size() - stuckCustomers) + " staff threads are still running");
+        for (Thread thread : stuck) {
+            System.out.println("\nThread: " + thread.getName());
+            System.out.println("State: " + thread.getState());
+            for (StackTraceElement stackTrace : thread.getStackTrace()) {
+                System.out.println("    at " + stackTrace);
+            }
+        }
+    }
+}
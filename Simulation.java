@@ -0,0 +1,277 @@
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+//This class is one restaurant scenario, it owns its configuration, queues, staff and results,
+//so several simulations can run at the same time in one JVM
+class Simulation {
+
+    //Constructor --------------------------------------------------------------------
+    private final SimulationOptions options;
+
+    public Simulation(SimulationOptions options) {
+        this.options = options;
+    }
+
+    //Global variables --------------------------------------------------------------
+    private int numChefs;
+    private int numWaiters;
+    private int numTables;
+
+    private CustomerSource customerSource; //the input file, or the generator when the customers are generated
+    private ResultWriter results;
+    private EventLog log = new EventLog(false); //the console trace, only enabled for a threaded run with full verbosity
+    private String tracePrefix = ""; //put in front of every trace line, e.g. the scenario number
+    private SimulationClock clock; //maps simulated minutes to real time in a threaded run
+    private ShiftCoordinator coordinator; //knows when the last customer has left a threaded run
+    private long customerSequence = 0;
+    private final HashMap<String, Integer> meals = new HashMap<>();
+    private KitchenLayout kitchenLayout;
+
+    private Chef[] chefs;
+    private Waiter[] waiters;
+
+    private OrderQueue orderBuffer;
+    private CircularBuffer<Order> readyOrders;
+    private BoundedQueue<Customer> tableQueue;
+
+    //This method runs the scenario of the input file, writes the customer serving data to the output file
+    //and returns the summary (null if the input file could not be read or the output file could not be written)
+    public SimulationSummary run(String inputFile, String outputFile) {
+        //Read input file, nothing is written when it can not be read
+        if (!readAndInitializeData(inputFile)) {
+            return null;
+        }
+
+        //Generated customers can be written to a file in the input format, to replay the same stream later
+        if (options.dumpFile != null && customerSource instanceof CustomerGenerator generator) {
+            try {
+                generator.dumpTo(options.dumpFile);
+            } catch (IOException e) {
+                System.err.println("Error writing to dump file: " + e.getMessage());
+            }
+        }
+
+        //Customers are written to the output file as they leave
+        try {
+            results = new ResultWriter(outputFile, String.format(Locale.ROOT, "Simulation Started with %d Chefs, %d Waiters, and %d Tables.\n\n", numChefs, numWaiters, numTables));
+        } catch (IOException e) {
+            System.err.println("Error writing to output file: " + e.getMessage());
+            return null;
+        }
+
+        if (options.engine.equals("event")) {
+            //Replay the simulation on the virtual clock
+            new DiscreteEventEngine(numChefs, numWaiters, numTables, options, kitchenLayout).run(this::nextCustomer, results);
+        } else {
+            log = new EventLog(options.verbosity == Verbosity.FULL, tracePrefix);
+            clock = new SimulationClock(options.speedup);
+
+            //Start simulation
+            startThreads();
+
+            //Wait for threads
+            waitForThreads();
+            log.close(); //print the rest of the trace before the summary
+        }
+
+        //Write the summary of the simulation
+        try {
+            return results.close();
+        } catch (IOException e) {
+            System.err.println("Error writing to output file: " + e.getMessage());
+            return null;
+        }
+    }
+
+    //This method replays the scenario of the input file on the virtual clock and returns the summary without writing an output file
+    //(used by the MonteCarloReplications), null if the input file can not be read
+    public SimulationSummary simulate(String inputFile) {
+        if (!readAndInitializeData(inputFile)) {
+            return null;
+        }
+        return replay();
+    }
+
+    //This method replays the scenario on the virtual clock with the given staffing instead of the one in the file,
+    //nothing is written to the output file, the summary is returned to the caller (used by the StaffingSweep),
+    //null if the input file can not be read
+    public SimulationSummary simulateStaffing(String inputFile, int numChefs, int numWaiters, int numTables) {
+        if (!readAndInitializeData(inputFile)) {
+            return null;
+        }
+        this.numChefs = numChefs;
+        this.numWaiters = numWaiters;
+        this.numTables = numTables;
+        return replay();
+    }
+
+    //This method reads the configuration of the input file and creates the queues, it returns false if the file can not be read
+    public boolean readAndInitializeData(String inputFile) {
+        try {
+            CustomerStream customerStream = new CustomerStream(inputFile);
+            numChefs = customerStream.getNumChefs();
+            numWaiters = customerStream.getNumWaiters();
+            numTables = customerStream.getNumTables();
+            meals.putAll(customerStream.getMeals());
+            kitchenLayout = new KitchenLayout(meals, customerStream.getMealStations(), options.workStealing);
+
+            //with an arrival profile only the configuration and the meals are taken from the file, the customers are generated
+            if (options.arrivalProfile != null) {
+                customerSource = new CustomerGenerator(customerStream, options);
+                customerStream.close();
+            } else {
+                customerSource = customerStream;
+            }
+
+            //a kitchen with stations gets one order queue per station, otherwise all chefs share one queue
+            if (kitchenLayout.getStationCount() > 1) {
+                orderBuffer = new StationOrderQueue(kitchenLayout, numChefs, options.scheduling, numTables, options.agingRate, options.batchSize);
+            } else {
+                orderBuffer = OrderQueue.create(options.scheduling, numTables, options.agingRate, options.batchSize);
+            }
+            readyOrders = new CircularBuffer<>(numTables);
+            tableQueue = new BoundedQueue<>(numTables, options.tableSections);
+            chefs = new Chef[numChefs];
+            waiters = new Waiter[numWaiters];
+            return true;
+        } catch (Exception e) {
+            System.err.println("Exception in simulation (Reading input files): " + e.getMessage());
+            return false;
+        }
+    }
+
+    //This method sets the text put in front of every line of the console trace
+    public void setTracePrefix(String tracePrefix) {
+        this.tracePrefix = tracePrefix;
+    }
+
+    //This method reads the next customer from the input stream (or the generator), it returns null once every customer has arrived
+    public Customer nextCustomer() {
+        try {
+            if (!customerSource.next()) {
+                customerSource.close();
+                return null;
+            }
+            String mealName = customerSource.getMealName();
+            Order order = new Order(mealName, meals.get(mealName), customerSource.getCustomerId());
+            return new Customer(customerSource.getCustomerId(), customerSequence++, customerSource.getArrivalTime(), order, orderBuffer, tableQueue, results, options, log, clock);
+        } catch (Exception e) {
+            System.err.println("Exception in simulation (Reading customers): " + e.getMessage());
+            return null;
+        }
+    }
+
+    public void startThreads() {
+        coordinator = new ShiftCoordinator(options.actorThreadFactory, TimeUnit.SECONDS.toNanos(options.timeLimit));
+        try {
+            for (int i = 0; i < numChefs; i++) {
+                OrderQueue chefOrders = (orderBuffer instanceof StationOrderQueue stations) ? stations.forChef(i + 1) : orderBuffer;
+                chefs[i] = new Chef(i + 1, chefOrders, readyOrders, options, log, clock);
+                coordinator.startStaff(chefs[i]);
+            }
+
+            for (int i = 0; i < numWaiters; i++) {
+                waiters[i] = new Waiter(i + 1, readyOrders, options, log, clock);
+                coordinator.startStaff(waiters[i]);
+            }
+
+            //customers are read lazily and each customer thread is started at the arrival time of the customer,
+            //the clock starts at the arrival of the first customer
+            boolean started = false;
+            Customer customer;
+            while ((customer = nextCustomer()) != null) {
+                if (!started) {
+                    clock.start(customer.getArrivalTime());
+                    started = true;
+                }
+                if (!coordinator.isWithinTimeLimit(clock.nanoTimeAt(customer.getArrivalTime()))) {
+                    System.err.println("Time limit of " + options.timeLimit + " seconds reached, no more customers are let in");
+                    break;
+                }
+                //arrival times keep counting over midnight, so the wait is never negative for input in arrival order
+                clock.sleepUntil(customer.getArrivalTime());
+
+                coordinator.startCustomer(customer);
+            }
+        } catch (Exception e) {
+            System.err.println("Exception in simulation (Starting threads): " + e.getMessage());
+        } finally {
+            coordinator.arrivalsClosed();
+        }
+    }
+
+    //This method waits until the last customer has left and then ends the shift of all chefs and waiters at once.
+    //A run in which no customer leaves for `options.deadline` simulated minutes, or that takes longer than `options.timeLimit`
+    //real seconds, is reported and given up.
+    public void waitForThreads() {
+        try {
+            coordinator.awaitEndOfShift(clock.toNanos(options.deadline), this::endShift);
+        } catch (Exception e) {
+            System.err.println("Exception in simulation (Waiting for threads): " + e.getMessage());
+        }
+    }
+
+    //getters --------------------------------------------------------------------
+    public int getNumChefs() {
+        return numChefs;
+    }
+
+    public int getNumWaiters() {
+        return numWaiters;
+    }
+
+    public int getNumTables() {
+        return numTables;
+    }
+
+    //the number of customers read so far, after a finished run the number of arrivals
+    public long getArrivals() {
+        return customerSequence;
+    }
+
+    //This method closes the input file, for callers that only read the configuration (e.g. the StaffingSweep)
+    public void closeInput() {
+        try {
+            if (customerSource != null) {
+                customerSource.close();
+            }
+        } catch (IOException e) {
+            System.err.println("Exception in simulation (Closing input file): " + e.getMessage());
+        }
+    }
+
+    //Helper methods --------------------------------------------------------------
+    //Replay the customers with the event engine, only the statistics are collected
+    private SimulationSummary replay() {
+        try {
+            results = new ResultWriter(null, null);
+            new DiscreteEventEngine(numChefs, numWaiters, numTables, options, kitchenLayout).run(this::nextCustomer, results);
+            return results.close();
+        } catch (IOException e) {
+            System.err.println("Exception in simulation (Replay): " + e.getMessage());
+            return new SimulationSummary(0, 0, 0, 0, Map.of(), new LatencyStats(0, 0, 0, 0, 0, 0, 0));
+        }
+    }
+
+    //End the shift of every chef and waiter, the first endShift on a shared queue already wakes all of its waiting threads
+    private void endShift() {
+        if (chefs == null || waiters == null) {
+            return; //the input file could not be read, no thread was started
+        }
+        for (Chef chef : chefs) {
+            if (chef != null) { //null when the threads could not be started
+                chef.endShift();
+            }
+        }
+        for (Waiter waiter : waiters) {
+            if (waiter != null) {
+                waiter.endShift();
+            }
+        }
+    }
+
+}
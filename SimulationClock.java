@@ -0,0 +1,51 @@
+import java.util.concurrent.TimeUnit;
+
+//This class is the clock of a threaded simulation, it maps simulated minutes to real time with one run-level speedup
+//(1 is real time, the default 10 runs a simulated minute in 6 real seconds, 1000 in 60 milliseconds).
+//Every sleep of the actors and every timestamp goes through it, timestamps are measured from one start instant with
+//System.nanoTime, so they do not drift or round differently per customer.
+class SimulationClock {
+    private static final double NANOS_PER_REAL_MINUTE = 60_000_000_000.0;
+
+    //Constructor --------------------------------------------------------------------
+    private final double nanosPerMinute;
+
+    public SimulationClock(double speedup) {
+        this.nanosPerMinute = NANOS_PER_REAL_MINUTE / speedup;
+    }
+
+    //Global variables --------------------------------------------------------------
+    private volatile long startNanos;
+    private volatile long startTime; //the simulated time at startNanos (see SimulationTime)
+
+    //This method starts the clock at the given simulated time, e.g. the arrival of the first customer
+    public void start(long startTime) {
+        this.startTime = startTime;
+        this.startNanos = System.nanoTime();
+    }
+
+    //This method returns the current simulated time in whole minutes
+    public long now() {
+        return startTime + (long) ((System.nanoTime() - startNanos) / nanosPerMinute);
+    }
+
+    //This method sleeps for the given simulated minutes
+    public void sleep(long minutes) throws InterruptedException {
+        TimeUnit.NANOSECONDS.sleep((long) (minutes * nanosPerMinute));
+    }
+
+    //This method sleeps until the given simulated time, it returns at once if that time has passed
+    public void sleepUntil(long time) throws InterruptedException {
+        TimeUnit.NANOSECONDS.sleep(nanoTimeAt(time) - System.nanoTime());
+    }
+
+    //This method returns the System.nanoTime value at which the clock reaches the given simulated time
+    public long nanoTimeAt(long time) {
+        return startNanos + toNanos(time - startTime);
+    }
+
+    //This method returns the real nanoseconds of the given simulated minutes
+    public long toNanos(long minutes) {
+        return (long) (minutes * nanosPerMinute);
+    }
+}
@@ -0,0 +1,105 @@
+import java.util.HashMap;
+import java.util.SplittableRandom;
+import java.util.concurrent.ThreadFactory;
+
+//This class holds the run-level options read from the command line, they are shared by every simulation of the run
+class SimulationOptions implements Cloneable {
+
+    //"threads" runs one platform thread per customer, chef and waiter in (scaled) real time,
+    //"virtual" runs the same actors as tasks on virtual threads (Java 21+),
+    //"event" replays the same simulation on a virtual clock with the DiscreteEventEngine
+    String engine = "threads";
+
+    //How much is written to the console (--verbosity=off|summary|full), full is the trace of every customer, chef and waiter
+    Verbosity verbosity = Verbosity.FULL;
+
+    //Simulated minutes per real minute of a threaded run (--speedup=N, 1 is real time),
+    //--speedup=max is unbounded and runs the event engine, which does not wait at all
+    double speedup = 10;
+
+    //Simulated minutes a threaded run may go without any customer leaving before it counts as stuck (--deadline=MINUTES),
+    //a finished run ends as soon as the last customer leaves
+    long deadline = 240;
+
+    //Real seconds the whole threaded run may take, whatever its progress (--time-limit=SECONDS, 0 has no limit).
+    //The stall window is in simulated minutes, so at a low speedup it takes long to notice a stuck run, the time limit does not
+    long timeLimit = 0;
+
+    //Creates the thread each customer, chef and waiter task runs on
+    ThreadFactory actorThreadFactory = Thread::new;
+
+    //Run-level seed of the random eating and serving times (--seed), every customer and waiter derives its own stream from it.
+    //Without --seed a new seed is drawn and printed, so the run can be repeated
+    long seed = new SplittableRandom().nextLong();
+    TimeDistribution eatingTime = TimeDistribution.UNIFORM; //--eating-time=uniform|exponential|lognormal
+    TimeDistribution servingTime = TimeDistribution.UNIFORM; //--serving-time=uniform|exponential|lognormal
+
+    //Generated customers (--generate=constant:R|hourly:R0,R1,..|peaks:BASE,LUNCH,DINNER), null reads the customers from the input file.
+    //The meals are drawn by weight (--meal-weights=Burger:3,Pizza:1, missing meals weigh 1), the stream ends at midnight
+    //or after maxCustomers (--customers), and can be written to a file in the input format (--dump, numbered per scenario when there are several input files)
+    ArrivalProfile arrivalProfile;
+    HashMap<String, Double> mealWeights = new HashMap<>();
+    long maxCustomers = Long.MAX_VALUE;
+    String dumpFile;
+
+    //Number of table sections with their own lock in the table pool (BoundedQueue), 1 keeps one lock for all tables
+    int tableSections = 1;
+
+    //The order in which chefs pick up pending orders (--scheduling=fifo|spt|spt-aging),
+    //agingRate is the priority an SPT_AGING order gains for every minute it waits (--aging-rate)
+    SchedulingPolicy scheduling = SchedulingPolicy.FIFO;
+    double agingRate = 0.5;
+
+    //Batch cooking, a chef cooks up to batchSize pending orders of the same meal together (--batch-size, 1 turns it off).
+    //A batch of n meals takes mealTime * (1 + batchExtraCost * (n - 1)) minutes (--batch-cost)
+    int batchSize = 1;
+    double batchExtraCost = 0.25;
+
+    //Chefs of a kitchen with stations (Name=00:M@station in the meal catalog) may take orders of other stations
+    //while their own station has nothing to cook (--work-stealing=on|off)
+    boolean workStealing = true;
+
+    //Multi-plate serving, a waiter carries up to plateCapacity ready orders per trip (--plates, 1 serves one order per trip).
+    //The first plate is served after the usual 5-10 minutes and every next plate plateServeTime minutes later (--plate-time).
+    //servingRadius > 0 only takes orders whose table is at most that many tables away from the first one (--serving-radius)
+    int plateCapacity = 1;
+    int plateServeTime = 1;
+    int servingRadius = 0;
+
+    //Staffing sweep (--sweep), each range is {from, to}, null keeps the value of the input file
+    boolean sweep = false;
+    int[] sweepChefs;
+    int[] sweepWaiters;
+    int[] sweepTables;
+    double targetWaitTime = 5;
+    int chefCost = 1;
+    int waiterCost = 1;
+    int tableCost = 1;
+
+    //Monte Carlo replications (--replications=R), the scenario is replayed R times with different seeds and
+    //stops early once every 95% confidence interval is within confidencePrecision of its mean (--ci-precision, 0.01 = 1%)
+    int replications = 0;
+    double confidencePrecision = 0.01;
+
+    //This method returns a copy of the options with another seed (used for the replications)
+    SimulationOptions withSeed(long seed) {
+        SimulationOptions copy = copy();
+        copy.seed = seed;
+        return copy;
+    }
+
+    //This method returns a copy of the options with another dump file (used for the scenarios of a batch)
+    SimulationOptions withDumpFile(String dumpFile) {
+        SimulationOptions copy = copy();
+        copy.dumpFile = dumpFile;
+        return copy;
+    }
+
+    private SimulationOptions copy() {
+        try {
+            return (SimulationOptions) clone();
+        } catch (CloneNotSupportedException e) {
+            throw new AssertionError(e);
+        }
+    }
+}
@@ -0,0 +1,50 @@
+import java.util.LinkedHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+//This class collects the statistics of a simulation online, every customer is recorded once when he leaves,
+//so the summary can be produced at any time without going over the customers again
+class SimulationStatistics {
+
+    private final LatencyHistogram tableWait = new LatencyHistogram();
+    private final LatencyHistogram orderToCookStart = new LatencyHistogram();
+    private final LatencyHistogram cookTime = new LatencyHistogram();
+    private final LatencyHistogram readyToServe = new LatencyHistogram();
+    private final LatencyHistogram dwell = new LatencyHistogram();
+    private final LatencyHistogram batchSizes = new LatencyHistogram(); //one entry per cook cycle (not a duration, the number of meals)
+    private final AtomicLong firstArrival = new AtomicLong(Long.MAX_VALUE);
+    private final AtomicLong lastLeave = new AtomicLong(Long.MIN_VALUE);
+
+    //This method records the durations of one customer, it can be called by many customers at the same time
+    public void record(CustomerData data) {
+        long arrival = data.getTime(CustomerEvent.ARRIVAL);
+        long leave = data.getTime(CustomerEvent.LEAVE);
+        tableWait.record(data.getTime(CustomerEvent.SEATED) - arrival);
+        orderToCookStart.record(data.getTime(CustomerEvent.CHEF_START) - data.getTime(CustomerEvent.ORDER));
+        cookTime.record(data.getTime(CustomerEvent.CHEF_FINISH) - data.getTime(CustomerEvent.CHEF_START));
+        readyToServe.record(data.getTime(CustomerEvent.SERVE) - data.getTime(CustomerEvent.CHEF_FINISH));
+        dwell.record(leave - arrival);
+        if (data.getOrder().getBatchPosition() == 0) {
+            batchSizes.record(data.getOrder().getBatchSize());
+        }
+        firstArrival.accumulateAndGet(arrival, Math::min);
+        lastLeave.accumulateAndGet(leave, Math::max);
+    }
+
+    //This method builds the summary from the collected statistics
+    public SimulationSummary summarize() {
+        LinkedHashMap<String, LatencyStats> latencies = new LinkedHashMap<>();
+        latencies.put("Table Wait", tableWait.snapshot());
+        latencies.put("Order to Cook Start", orderToCookStart.snapshot());
+        latencies.put("Cook Time", cookTime.snapshot());
+        latencies.put("Ready to Serve", readyToServe.snapshot());
+        latencies.put("Total Dwell", dwell.snapshot());
+
+        LatencyStats wait = latencies.get("Table Wait");
+        int totalCustomersServed = (int) wait.getCount();
+        //order preparation (order placed until the chef finishes) is the sum of the two kitchen stages
+        double averageOrderPreparationTime = latencies.get("Order to Cook Start").getMean() + latencies.get("Cook Time").getMean();
+        long totalSimulationTime = (totalCustomersServed == 0) ? 0 : lastLeave.get() - firstArrival.get();
+
+        return new SimulationSummary(totalCustomersServed, wait.getMean(), averageOrderPreparationTime, totalSimulationTime, latencies, batchSizes.snapshot());
+    }
+}
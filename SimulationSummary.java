@@ -0,0 +1,75 @@
+import java.util.Locale;
+import java.util.Map;
+
+//This class stores the metrics of one finished simulation, toString() is the summary written at the end of the output file
+class SimulationSummary {
+
+    private final int totalCustomersServed;
+    private final double averageWaitTime;
+    private final double averageOrderPreparationTime;
+    private final long totalSimulationTime;
+    private final Map<String, LatencyStats> latencies; //statistics per stage of the visit, in the order they are reported
+    private final LatencyStats batchSizes; //meals per cook cycle, the count is the number of cook cycles
+
+    public SimulationSummary(int totalCustomersServed, double averageWaitTime, double averageOrderPreparationTime, long totalSimulationTime, Map<String, LatencyStats> latencies, LatencyStats batchSizes) {
+        this.totalCustomersServed = totalCustomersServed;
+        this.averageWaitTime = averageWaitTime;
+        this.averageOrderPreparationTime = averageOrderPreparationTime;
+        this.totalSimulationTime = totalSimulationTime;
+        this.latencies = latencies;
+        this.batchSizes = batchSizes;
+    }
+
+    //getters --------------------------------------------------------------------
+    public int getTotalCustomersServed() {
+        return totalCustomersServed;
+    }
+
+    public double getAverageWaitTime() {
+        return averageWaitTime;
+    }
+
+    public double getAverageOrderPreparationTime() {
+        return averageOrderPreparationTime;
+    }
+
+    public long getTotalSimulationTime() {
+        return totalSimulationTime;
+    }
+
+    public Map<String, LatencyStats> getLatencies() {
+        return latencies;
+    }
+
+    public LatencyStats getBatchSizes() {
+        return batchSizes;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder summary = new StringBuilder();
+        summary.append("\n[End of Simulation]\n")
+                .append("\nSummary:\n")
+                .append("- Total Customers Served: ").append(totalCustomersServed).append("\n")
+                .append("- Average Wait Time for Table: ").append((int) averageWaitTime).append(" Minutes\n")
+                .append("- Average Order Preparation Time: ").append((int) averageOrderPreparationTime).append(" Minutes\n")
+                .append("- Total Simulation Time: ").append(totalSimulationTime).append(" Minutes\n");
+        //the batch line is only written when meals were actually cooked together, so the summary stays the same without batching
+        if (batchSizes.getMax() > 1) {
+            summary.append("- Cook Batches: ").append(batchSizes.getCount())
+                    .append(String.format(Locale.ROOT, " (Average %.2f Meals, Largest %d)\n", batchSizes.getMean(), batchSizes.getMax()));
+        }
+
+        if (!latencies.isEmpty()) {
+            summary.append("\nLatencies (Minutes):\n")
+                    .append(String.format(Locale.ROOT, "%-20s %8s %8s %6s %6s %6s %6s %6s\n", "", "Count", "Mean", "Min", "P50", "P90", "P99", "Max"));
+            for (Map.Entry<String, LatencyStats> latency : latencies.entrySet()) {
+                LatencyStats stats = latency.getValue();
+                summary.append(String.format(Locale.ROOT, "%-20s %8d %8.2f %6d %6d %6d %6d %6d\n", latency.getKey(), stats.getCount(), stats.getMean(),
+                        stats.getMin(), stats.getP50(), stats.getP90(), stats.getP99(), stats.getMax()));
+            }
+        }
+
+        return summary.toString();
+    }
+}
@@ -0,0 +1,58 @@
+//Simulation times are minutes counted from 1970-01-01 00:00, a monotonic long that keeps counting over midnight,
+//so differences between times are plain subtractions. Undated input starts on day 0, so its times are minutes from midnight.
+//Times are only turned into text for the output.
+final class SimulationTime {
+    static final int MINUTES_PER_DAY = 24 * 60;
+    static final int MAX_YEAR = 5999; //the minutes up to this year fit in the int of a customer timeline (see CustomerEvent)
+
+    private SimulationTime() {
+    }
+
+    //This method returns the time of midnight of a date (days from civil, no LocalDate objects)
+    static long ofDate(int year, int month, int day) {
+        int y = (month <= 2) ? year - 1 : year;
+        int era = Math.floorDiv(y, 400);
+        int yearOfEra = y - era * 400;
+        int dayOfYear = (153 * (month + ((month > 2) ? -3 : 9)) + 2) / 5 + day - 1;
+        int dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+        long epochDay = era * 146097L + dayOfEra - 719468;
+        return epochDay * MINUTES_PER_DAY;
+    }
+
+    //This method appends the clock time as HH:mm
+    static void appendClock(StringBuilder text, long time) {
+        long minuteOfDay = Math.floorMod(time, MINUTES_PER_DAY);
+        int hour = (int) (minuteOfDay / 60);
+        int minute = (int) (minuteOfDay % 60);
+        text.append((char) ('0' + hour / 10)).append((char) ('0' + hour % 10))
+                .append(':')
+                .append((char) ('0' + minute / 10)).append((char) ('0' + minute % 10));
+    }
+
+    //This method appends the date as yyyy-MM-dd (civil from days)
+    static void appendDate(StringBuilder text, long time) {
+        long epochDay = Math.floorDiv(time, MINUTES_PER_DAY) + 719468;
+        long era = Math.floorDiv(epochDay, 146097);
+        long dayOfEra = epochDay - era * 146097;
+        long yearOfEra = (dayOfEra - dayOfEra / 1460 + dayOfEra / 36524 - dayOfEra / 146096) / 365;
+        long dayOfYear = dayOfEra - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100);
+        long monthIndex = (5 * dayOfYear + 2) / 153;
+        long day = dayOfYear - (153 * monthIndex + 2) / 5 + 1;
+        long month = monthIndex + ((monthIndex < 10) ? 3 : -9);
+        long year = yearOfEra + era * 400 + ((month <= 2) ? 1 : 0);
+        text.append(year).append('-')
+                .append((char) ('0' + month / 10)).append((char) ('0' + month % 10)).append('-')
+                .append((char) ('0' + day / 10)).append((char) ('0' + day % 10));
+    }
+
+    //This method formats a time as HH:mm on day 0 (undated input) and as yyyy-MM-ddTHH:mm on any other day
+    static String format(long time) {
+        StringBuilder text = new StringBuilder(16);
+        if (time < 0 || time >= MINUTES_PER_DAY) {
+            appendDate(text, time);
+            text.append('T');
+        }
+        appendClock(text, time);
+        return text.toString();
+    }
+}
@@ -0,0 +1,118 @@
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.stream.Collectors;
+
+//This class is used for capacity planning, it replays the same customer stream for every combination of chefs, waiters and tables
+//in the given ranges (in parallel on the fork-join pool) and reports the metrics of each staffing and the cheapest one that meets the target wait time
+class StaffingSweep {
+
+    //The result of one staffing combination
+    static final class SweepResult {
+        private final int numChefs;
+        private final int numWaiters;
+        private final int numTables;
+        private final int cost;
+        private final SimulationSummary summary;
+        private final long arrivals;
+
+        SweepResult(int numChefs, int numWaiters, int numTables, int cost, SimulationSummary summary, long arrivals) {
+            this.numChefs = numChefs;
+            this.numWaiters = numWaiters;
+            this.numTables = numTables;
+            this.cost = cost;
+            this.summary = summary;
+            this.arrivals = arrivals;
+        }
+
+        //a staffing only counts when every customer that arrived has been served
+        boolean meetsTarget(double targetWaitTime) {
+            return summary.getTotalCustomersServed() == arrivals && summary.getAverageWaitTime() <= targetWaitTime;
+        }
+
+        @Override
+        public String toString() {
+            long p90WaitTime = summary.getLatencies().containsKey("Table Wait") ? summary.getLatencies().get("Table Wait").getP90() : 0;
+            return String.format(Locale.ROOT, "%4d %4d %4d %6d %12.2f %12d %12.2f %12d", numChefs, numWaiters, numTables, cost,
+                    summary.getAverageWaitTime(), p90WaitTime, summary.getAverageOrderPreparationTime(), summary.getTotalSimulationTime());
+        }
+    }
+
+    //Constructor --------------------------------------------------------------------
+    private final String inputFile;
+    private final SimulationOptions options;
+
+    public StaffingSweep(String inputFile, SimulationOptions options) {
+        this.inputFile = inputFile;
+        this.options = options;
+    }
+
+    //run method --------------------------------------------------------------------
+    //This method simulates every combination and returns the report, a missing range falls back to the value in the input file
+    public String run() {
+        Simulation scenario = new Simulation(options);
+        int[] chefRange;
+        int[] waiterRange;
+        int[] tableRange;
+        try {
+            if (!scenario.readAndInitializeData(inputFile)) {
+                return "\n[Staffing Sweep: " + inputFile + "]\n\nThe input file could not be read\n";
+            }
+            chefRange = (options.sweepChefs != null) ? options.sweepChefs : new int[]{scenario.getNumChefs(), scenario.getNumChefs()};
+            waiterRange = (options.sweepWaiters != null) ? options.sweepWaiters : new int[]{scenario.getNumWaiters(), scenario.getNumWaiters()};
+            tableRange = (options.sweepTables != null) ? options.sweepTables : new int[]{scenario.getNumTables(), scenario.getNumTables()};
+        } finally {
+            scenario.closeInput(); //only the configuration is needed here, every combination reads the file again
+        }
+
+        List<int[]> staffings = new ArrayList<>();
+        for (int chefs = chefRange[0]; chefs <= chefRange[1]; chefs++) {
+            for (int waiters = waiterRange[0]; waiters <= waiterRange[1]; waiters++) {
+                for (int tables = tableRange[0]; tables <= tableRange[1]; tables++) {
+                    staffings.add(new int[]{chefs, waiters, tables});
+                }
+            }
+        }
+
+        //every combination is an independent event-driven simulation, so they are spread over all cores
+        List<SweepResult> results = staffings.parallelStream()
+                .map(staffing -> simulate(staffing[0], staffing[1], staffing[2]))
+                .collect(Collectors.toList());
+
+        return report(results);
+    }
+
+    //Helper methods --------------------------------------------------------------
+    private SweepResult simulate(int numChefs, int numWaiters, int numTables) {
+        Simulation simulation = new Simulation(options);
+        SimulationSummary summary = simulation.simulateStaffing(inputFile, numChefs, numWaiters, numTables);
+        int cost = numChefs * options.chefCost + numWaiters * options.waiterCost + numTables * options.tableCost;
+        return new SweepResult(numChefs, numWaiters, numTables, cost, summary, simulation.getArrivals());
+    }
+
+    private String report(List<SweepResult> results) {
+        StringBuilder report = new StringBuilder();
+        report.append("\n[Staffing Sweep: ").append(inputFile).append("]\n\n")
+                .append("  NC   NW   NT   Cost     Avg Wait     P90 Wait     Avg Prep   Total Time\n");
+        for (SweepResult result : results) {
+            report.append(result).append("\n");
+        }
+
+        //the cheapest staffing that serves every customer and meets the target, ties are broken by the shorter wait
+        SweepResult cheapest = results.stream()
+                .filter(result -> result.meetsTarget(options.targetWaitTime))
+                .min(Comparator.comparingInt((SweepResult result) -> result.cost)
+                        .thenComparingDouble(result -> result.summary.getAverageWaitTime()))
+                .orElse(null);
+
+        report.append("\nCheapest staffing with an average wait of at most ").append(options.targetWaitTime).append(" Minutes: ");
+        if (cheapest == null) {
+            report.append("none of the combinations meets the target\n");
+        } else {
+            report.append(String.format(Locale.ROOT, "%d Chefs, %d Waiters, %d Tables (cost %d, average wait %.2f Minutes)\n",
+                    cheapest.numChefs, cheapest.numWaiters, cheapest.numTables, cheapest.cost, cheapest.summary.getAverageWaitTime()));
+        }
+        return report.toString();
+    }
+}
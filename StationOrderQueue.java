@@ -0,0 +1,205 @@
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+//The pending orders of a kitchen with several stations, every station has its own order queue, so chefs of different
+//stations never touch the same queue. A chef takes the orders of his own station first and, when stealing is allowed,
+//takes an order of the next stations while his own station has nothing to cook.
+//Customers add orders through this class, every chef gets his own view from forChef().
+class StationOrderQueue implements OrderQueue {
+
+    //Constructor --------------------------------------------------------------------
+    private final KitchenLayout layout;
+    private final OrderQueue[] stations;
+    private final boolean stealing;
+
+    public StationOrderQueue(KitchenLayout layout, int numChefs, SchedulingPolicy policy, int capacity, double agingRate, int batchSize) {
+        this.layout = layout;
+        this.stealing = layout.canSteal(numChefs);
+        stations = new OrderQueue[layout.getStationCount()];
+        notEmpty = new Condition[stations.length];
+        for (int i = 0; i < stations.length; i++) {
+            stations[i] = OrderQueue.create(policy, capacity, agingRate, batchSize);
+            notEmpty[i] = lock.newCondition();
+        }
+        waitingChefs = new AtomicIntegerArray(stations.length);
+        pendingSignals = new int[stations.length];
+    }
+
+    //Global variables --------------------------------------------------------------
+    private volatile boolean endShift = false;
+
+    //chefs only block on the lock while no queue they may take from has an order, each station has its own condition
+    private final Lock lock = new ReentrantLock();
+    private final Condition[] notEmpty;
+    private final AtomicIntegerArray waitingChefs; //chefs waiting on notEmpty that no add has signalled yet
+    private final int[] pendingSignals; //signals sent but not yet taken by a woken chef, guarded by lock
+
+    //add method --------------------------------------------------------------------
+    //This method queues the order at the station of its meal and wakes up a chef of that station
+    //(or, when stealing is allowed and that station has no waiting chef, a waiting chef of another station).
+    //The signalled chef is taken off waitingChefs right away, so the next add wakes another chef instead of the same one
+    @Override
+    public void add(Order order) {
+        if (endShift) {
+            return;
+        }
+        int station = layout.getMealStation(order.getMealName());
+        stations[station].add(order);
+        for (int i = 0; i < stations.length; i++) {
+            int waiting = (station + i) % stations.length;
+            if (waitingChefs.get(waiting) > 0 && signal(waiting)) {
+                return;
+            }
+            if (!stealing) {
+                return;
+            }
+        }
+    }
+
+    //remove methods --------------------------------------------------------------------
+    //This method waits for an order a chef of the station may cook and returns null once the shift has ended and those queues are empty
+    public Order remove(int station) {
+        Order order = poll(station);
+        if (order != null) {
+            return order;
+        }
+
+        lock.lock();
+        waitingChefs.incrementAndGet(station);
+        try {
+            while ((order = poll(station)) == null && !endShift) {
+                try {
+                    notEmpty[station].await();
+                } finally {
+                    //a signal took a chef off waitingChefs, count this chef again before he looks at the queues
+                    if (pendingSignals[station] > 0) {
+                        pendingSignals[station]--;
+                        waitingChefs.incrementAndGet(station);
+                    }
+                }
+            }
+        } catch (InterruptedException e) {
+            System.err.println("Exception in remove method: " + e.getMessage());
+            Thread.currentThread().interrupt();
+        } finally {
+            waitingChefs.decrementAndGet(station);
+            lock.unlock();
+        }
+        return order;
+    }
+
+    //Wake up one waiting chef of the station, false if every waiting chef of the station has already been signalled
+    private boolean signal(int station) {
+        lock.lock();
+        try {
+            if (waitingChefs.get(station) == 0) {
+                return false;
+            }
+            waitingChefs.decrementAndGet(station);
+            pendingSignals[station]++;
+            notEmpty[station].signal();
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    //This method takes an order of the station, or of the next stations when stealing is allowed, without waiting
+    public Order poll(int station) {
+        int queues = stealing ? stations.length : 1;
+        for (int i = 0; i < queues; i++) {
+            Order order = stations[(station + i) % stations.length].poll();
+            if (order != null) {
+                return order;
+            }
+        }
+        return null;
+    }
+
+    //This method waits for an order like remove(station) and adds the pending orders of the same meal from the same station queue
+    public int removeBatch(int station, Order[] batch) {
+        batch[0] = remove(station);
+        if (batch[0] == null) {
+            return 0;
+        }
+        if (batch.length == 1) {
+            return 1;
+        }
+        return 1 + stations[layout.getMealStation(batch[0].getMealName())].pollSameMeal(batch[0], batch, 1);
+    }
+
+    //Customers never take orders, the shared queue acts like the first station
+    @Override
+    public Order remove() {
+        return remove(0);
+    }
+
+    @Override
+    public Order poll() {
+        return poll(0);
+    }
+
+    @Override
+    public void endShift() {
+        endShift = true;
+        for (OrderQueue station : stations) {
+            station.endShift();
+        }
+        lock.lock();
+        try {
+            for (Condition condition : notEmpty) {
+                condition.signalAll();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public boolean isEmpty() {
+        for (OrderQueue station : stations) {
+            if (!station.isEmpty()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    //This method returns the queue a chef takes his orders from (chef ids start at 1)
+    public OrderQueue forChef(int chefId) {
+        int station = layout.getChefStation(chefId);
+        return new OrderQueue() {
+            @Override
+            public void add(Order order) {
+                StationOrderQueue.this.add(order);
+            }
+
+            @Override
+            public Order remove() {
+                return StationOrderQueue.this.remove(station);
+            }
+
+            @Override
+            public int removeBatch(Order[] batch) {
+                return StationOrderQueue.this.removeBatch(station, batch);
+            }
+
+            @Override
+            public Order poll() {
+                return StationOrderQueue.this.poll(station);
+            }
+
+            @Override
+            public void endShift() {
+                StationOrderQueue.this.endShift();
+            }
+
+            @Override
+            public boolean isEmpty() {
+                return StationOrderQueue.this.isEmpty();
+            }
+        };
+    }
+}
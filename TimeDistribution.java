@@ -0,0 +1,26 @@
+import java.util.random.RandomGenerator;
+
+//The distribution of the random eating and serving times, every distribution is given the same range of minutes (5-10 today)
+enum TimeDistribution {
+    //every minute between min and max is equally likely (the original behaviour)
+    UNIFORM,
+    //min plus an exponential time with the same mean as UNIFORM, mostly short with a long tail
+    EXPONENTIAL,
+    //lognormal around the middle of the range, skewed towards longer times
+    LOGNORMAL;
+
+    private static final double LOGNORMAL_SIGMA = 0.3;
+
+    //This method draws a time in whole minutes, it is never shorter than one minute
+    int sample(RandomGenerator random, int min, int max) {
+        double minutes = switch (this) {
+            case UNIFORM ->
+                random.nextInt(min, max + 1);
+            case EXPONENTIAL ->
+                min + random.nextExponential() * (max - min) / 2.0;
+            case LOGNORMAL ->
+                (min + max) / 2.0 * Math.exp(LOGNORMAL_SIGMA * random.nextGaussian());
+        };
+        return Math.max(1, (int) Math.round(minutes));
+    }
+}
@@ -0,0 +1,9 @@
+//How much a simulation writes to the console (--verbosity=off|summary|full), the output files are always written
+enum Verbosity {
+    //nothing, not even the summary
+    OFF,
+    //only the summary of every simulation
+    SUMMARY,
+    //every step of every customer, chef and waiter (the original console trace) and the summary
+    FULL
+}
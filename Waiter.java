@@ -1,49 +1,71 @@
 
-import java.util.Random;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.SplittableRandom;
 
-class Waiter extends Thread {
+class Waiter implements Runnable {
 
     //Constructor --------------------------------------------------------------------
     private final int id;
     private final CircularBuffer<Order> readyOrders;
+    private final Object[] plates; //the orders of the current trip, reused for every trip
+    private final int plateServeTime;
+    private final int servingRadius;
+    private final SplittableRandom random; //the own random stream of the waiter, derived from the run seed
+    private final TimeDistribution servingTime;
+    private final EventLog log;
+    private final SimulationClock clock;
 
-    public Waiter(int id, CircularBuffer<Order> readyOrders) {
+    public Waiter(int id, CircularBuffer<Order> readyOrders, SimulationOptions options, EventLog log, SimulationClock clock) {
         this.id = id;
         this.readyOrders = readyOrders;
+        this.plates = new Object[options.plateCapacity];
+        this.plateServeTime = options.plateServeTime;
+        this.servingRadius = options.servingRadius;
+        this.random = RandomStreams.forActor(options.seed, RandomStreams.WAITER, id);
+        this.servingTime = options.servingTime;
+        this.log = log;
+        this.clock = clock;
     }
 
-    //Global variables --------------------------------------------------------------
-    static CustomSemaphore mutex = new CustomSemaphore(1);
-    boolean endShift = false;
+    //Thread run method -------------------------------------------------------------
+    /*
+    Steps:
+    1. Take up to plateCapacity ready orders from `readyOrders` in one dequeue (one order when multi-plate serving is off).
+    - readyOrders does its own concurrency control, so waiters dequeue in parallel.
+    - `removeBatch()` returns 0 once the shift has ended and all orders are served, which ends the loop.
 
+    2. Plan the trip: orders too far from the first table are handed back and the plates are served in table order.
+
+    3. Walk to the first table (5-10 minutes) and serve it, then every next plate `plateServeTime` minutes later.
+     */
     @Override
     public void run() {
-        while (!endShift || !readyOrders.isEmpty()) { //Continue until the end of the shift or all orders are processed
+        while (true) {
             try {
-                try {
-                    mutex.acquire(); 
-                    //retrieve order from buffer
-                    Order orderMeal = (Order) readyOrders.remove();
-                    if (orderMeal == null) {
-                        mutex.release();
-                        break;
-                    }
+                //retrieve the orders from buffer
+                int count = readyOrders.removeBatch(plates);
+                if (count == 0) { //the shift has ended and all orders are served
+                    break;
+                }
+                count = planTrip(count);
 
-                    System.out.println("Waiter " + id + " is serving " + orderMeal.getMealName() + " for Customer " + orderMeal.getCustomerId());
+                for (int i = 0; i < count; i++) {
+                    Order orderMeal = (Order) plates[i];
+                    log.log(LogEvent.WAITER_SERVING, id, orderMeal.getCustomerId(), orderMeal.getMealName());
+                }
 
-                    mutex.release(); 
+                for (int i = 0; i < count; i++) {
+                    Order orderMeal = (Order) plates[i];
+                    plates[i] = null;
 
-                    //simulate meal serving time
-                    Thread.sleep((long) (1000 * generateRandomServingTime() * 60 * 0.1));
-                    System.out.println("Waiter " + id + " has served " + orderMeal.getMealName() + " for Customer " + orderMeal.getCustomerId());
+                    //simulate meal serving time, the walk to the first table and then the step to each next table
+                    int servingTime = (i == 0) ? generateRandomServingTime() : plateServeTime;
+                    clock.sleep(servingTime);
+                    log.log(LogEvent.WAITER_SERVED, id, orderMeal.getCustomerId(), orderMeal.getMealName());
 
-                    //mark order as ready and notify customer
+                    //mark order as served and notify customer
                     orderMeal.markOrderServed(this.id);
-                } finally {
-                    //Ensure mutex is released in case of exception
-                    if (mutex.getCurrentPermits() == 0) {
-                        mutex.release();
-                    }
                 }
             } catch (Exception e) {
                 System.err.println("Exception in run method: " + e.getMessage());
@@ -55,21 +77,40 @@ class Waiter extends Thread {
     //Helper methods --------------------------------------------------------------
     //This method is used to end the shift of the waiter when all the customers have been served
     public void endShift() {
-        System.out.println("Waiter " + id + " has ended the shift");
-        endShift = true;
+        log.log(LogEvent.WAITER_SHIFT_ENDED, id, 0, null);
         readyOrders.endShift();
     }
 
-    //This method is used to generate a random serving time time between 5 and 10 minutes
+    //This method is used to keep the plates of one trip close together, orders more than servingRadius tables away from the first
+    //plate go back to readyOrders for the next trip, the rest is sorted by table so the waiter walks the tables in order
+    private int planTrip(int count) {
+        int kept = count;
+        if (servingRadius > 0) {
+            int firstTable = ((Order) plates[0]).getTableIndex();
+            kept = 1;
+            for (int i = 1; i < count; i++) {
+                Order orderMeal = (Order) plates[i];
+                plates[i] = null;
+                if (isOnRoute(firstTable, orderMeal.getTableIndex(), servingRadius)) {
+                    plates[kept++] = orderMeal;
+                } else {
+                    readyOrders.add(orderMeal);
+                }
+            }
+        }
+        Arrays.sort(plates, 0, kept, Comparator.comparingInt(plate -> ((Order) plate).getTableIndex()));
+        return kept;
+    }
+
+    //This method is used to check if a table is close enough to the first table of a trip, a radius of 0 accepts every table
+    public static boolean isOnRoute(int firstTable, int table, int servingRadius) {
+        return servingRadius <= 0 || Math.abs(table - firstTable) <= servingRadius;
+    }
+
+    //This method is used to generate a random serving time between 5 and 10 minutes (by default uniform) from the stream of the waiter
     public int generateRandomServingTime() {
-        Random random = new Random();
         int min = 5;
         int max = 10;
-        int num = ((random.nextInt((max - min) + 1) + min));
-        return num;
-    }
-
-    static void resetSemaphore() {
-        mutex = new CustomSemaphore(1);
+        return servingTime.sample(random, min, max);
     }
 }
@@ -0,0 +1,124 @@
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+//This class gives the JMH benchmarks in the bench package access to the simulation classes (see bench.Targets),
+//it lives in the default package with them and only forwards the calls
+public class BenchmarkTargets implements bench.Targets {
+    //The generated workloads: 4 chefs cook about 0.38 meals a minute, customers arrive at 0.3 a minute (18 an hour, profiles
+    //are in customers per hour) and stay about 30 minutes at one of 12 tables. Kitchen and tables are about 80% busy,
+    //so orders and customers queue, but the backlog does not keep growing and the run time grows with the number of customers
+    private static final String CATALOG = "NC=4 NW=4 NT=12\nBurger=00:10 Pizza=00:15 Pasta=00:12 Salad=00:05\n";
+    private static final String ARRIVAL_RATE = "constant:18";
+
+    @Override
+    public Channel circularBuffer(int capacity) {
+        CircularBuffer<Object> buffer = new CircularBuffer<>(capacity);
+        return new Channel() {
+            @Override
+            public boolean offer(Object item) {
+                return buffer.offer(item);
+            }
+
+            @Override
+            public Object poll() {
+                return buffer.poll();
+            }
+        };
+    }
+
+    @Override
+    public Permits customSemaphore(int permits) {
+        CustomSemaphore semaphore = new CustomSemaphore(permits);
+        return new Permits() {
+            @Override
+            public void acquire() throws InterruptedException {
+                semaphore.acquire();
+            }
+
+            @Override
+            public void release() {
+                semaphore.release();
+            }
+        };
+    }
+
+    @Override
+    public Tables boundedQueue(int tables, int sections) {
+        BoundedQueue<Object> queue = new BoundedQueue<>(tables, sections);
+        return new Tables() {
+            @Override
+            public int seat(Object occupant) {
+                return queue.add(occupant);
+            }
+
+            @Override
+            public void vacate(int tableIndex) {
+                queue.remove(tableIndex);
+            }
+        };
+    }
+
+    @Override
+    public Signal order() {
+        return new Signal() {
+            @Override
+            public Object newOrder() {
+                return new Order("Burger", 10, 1);
+            }
+
+            @Override
+            public void markStarted(Object order) {
+                ((Order) order).markOrderStart(1);
+            }
+
+            @Override
+            public int awaitStarted(Object order) {
+                return ((Order) order).waitUntilOrderStart();
+            }
+        };
+    }
+
+    @Override
+    public void writeCatalog(String catalogFile) throws IOException {
+        Files.writeString(Path.of(catalogFile), CATALOG, StandardCharsets.US_ASCII);
+    }
+
+    @Override
+    public void writeWorkload(String catalogFile, String inputFile, long customers, long seed) throws IOException {
+        try (CustomerStream catalog = new CustomerStream(catalogFile);
+             CustomerGenerator generator = new CustomerGenerator(catalog, workloadOptions(customers, seed))) {
+            generator.dumpTo(inputFile);
+            while (generator.next()) {
+                //every drawn customer is written to the dump
+            }
+        }
+    }
+
+    @Override
+    public long parse(String inputFile) throws IOException {
+        long customers = 0;
+        try (CustomerStream stream = new CustomerStream(inputFile)) {
+            while (stream.next()) {
+                customers++;
+            }
+        }
+        return customers;
+    }
+
+    @Override
+    public long simulate(String catalogFile, long customers, long seed) {
+        return new Simulation(workloadOptions(customers, seed)).simulate(catalogFile).getTotalCustomersServed();
+    }
+
+    //Helper methods --------------------------------------------------------------
+    private static SimulationOptions workloadOptions(long customers, long seed) {
+        SimulationOptions options = new SimulationOptions();
+        options.verbosity = Verbosity.OFF;
+        options.seed = seed;
+        options.arrivalProfile = ArrivalProfile.parse(ARRIVAL_RATE);
+        options.maxCustomers = customers;
+        return options;
+    }
+}
@@ -0,0 +1,47 @@
+package bench;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+//Seating a customer and freeing the table again, with one lock for all tables and with a lock per table section
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(4)
+@State(Scope.Benchmark)
+public class BoundedQueueBenchmark {
+    private static final Object CUSTOMER = new Object();
+
+    @Param({"64", "4096"})
+    int tables;
+
+    @Param({"1", "4"})
+    int sections;
+
+    private Targets.Tables queue;
+
+    @Setup
+    public void setUp() throws ReflectiveOperationException {
+        queue = Targets.load().boundedQueue(tables, sections);
+    }
+
+    @Benchmark
+    public int seatAndVacate() {
+        int table = queue.seat(CUSTOMER);
+        queue.vacate(table);
+        return table;
+    }
+}
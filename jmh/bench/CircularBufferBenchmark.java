@@ -0,0 +1,108 @@
+package bench;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+//Throughput of the order and ready queues: producers offer and consumers poll one shared CircularBuffer.
+//The groups cover one, two and four producers and consumers, other mixes can be run with -tg (e.g. -tg 3,1).
+//The primary score counts every offer and poll call, full and empty buffers included. The handoff throughput is the
+//secondary `transfers` result, which only counts the items that went through (a poll that returned an item).
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Group)
+public class CircularBufferBenchmark {
+    private static final Object ITEM = new Object();
+
+    @Param({"16", "1024"})
+    int capacity;
+
+    private Targets.Channel buffer;
+
+    @Setup
+    public void setUp() throws ReflectiveOperationException {
+        buffer = Targets.load().circularBuffer(capacity);
+    }
+
+    //The items a thread took out of the buffer, summed over the group by JMH
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class Transfers {
+        public long transfers;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            transfers = 0;
+        }
+    }
+
+    @Benchmark
+    @Group("one")
+    @GroupThreads(1)
+    public boolean oneOffer() {
+        return buffer.offer(ITEM);
+    }
+
+    @Benchmark
+    @Group("one")
+    @GroupThreads(1)
+    public Object onePoll(Transfers counters) {
+        Object item = buffer.poll();
+        if (item != null) {
+            counters.transfers++;
+        }
+        return item;
+    }
+
+    @Benchmark
+    @Group("two")
+    @GroupThreads(2)
+    public boolean twoOffer() {
+        return buffer.offer(ITEM);
+    }
+
+    @Benchmark
+    @Group("two")
+    @GroupThreads(2)
+    public Object twoPoll(Transfers counters) {
+        Object item = buffer.poll();
+        if (item != null) {
+            counters.transfers++;
+        }
+        return item;
+    }
+
+    @Benchmark
+    @Group("four")
+    @GroupThreads(4)
+    public boolean fourOffer() {
+        return buffer.offer(ITEM);
+    }
+
+    @Benchmark
+    @Group("four")
+    @GroupThreads(4)
+    public Object fourPoll(Transfers counters) {
+        Object item = buffer.poll();
+        if (item != null) {
+            counters.transfers++;
+        }
+        return item;
+    }
+}
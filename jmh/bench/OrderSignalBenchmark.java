@@ -0,0 +1,61 @@
+package bench;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+//Latency from a chef marking an order as started to the customer waiting on it waking up.
+//A background chef thread picks up each new order and marks it, the measured thread places the order and waits.
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class OrderSignalBenchmark {
+    private final AtomicReference<Object> placed = new AtomicReference<>();
+    private Targets.Signal signal;
+    private Thread chef;
+    private volatile boolean running;
+
+    @Setup
+    public void setUp() throws ReflectiveOperationException {
+        signal = Targets.load().order();
+        running = true;
+        chef = new Thread(() -> {
+            while (running) {
+                Object order = placed.getAndSet(null);
+                if (order != null) {
+                    signal.markStarted(order);
+                } else {
+                    Thread.yield(); //the customer may need this core to place the next order
+                }
+            }
+        }, "benchmark-chef");
+        chef.setDaemon(true);
+        chef.start();
+    }
+
+    @TearDown
+    public void tearDown() throws InterruptedException {
+        running = false;
+        chef.join();
+    }
+
+    @Benchmark
+    public int placeAndAwaitStart() {
+        Object order = signal.newOrder();
+        placed.set(order);
+        return signal.awaitStarted(order);
+    }
+}
@@ -0,0 +1,51 @@
+package bench;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+//Acquire and release of the repo's semaphore (CustomSemaphore) against java.util.concurrent.Semaphore,
+//with fewer permits than threads the threads have to wait for each other. The thread count can be changed with -t.
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(4)
+@State(Scope.Benchmark)
+public class SemaphoreBenchmark {
+    @Param({"1", "4"})
+    int permits;
+
+    private Targets.Permits custom;
+    private Semaphore jdk;
+
+    @Setup
+    public void setUp() throws ReflectiveOperationException {
+        custom = Targets.load().customSemaphore(permits);
+        jdk = new Semaphore(permits);
+    }
+
+    @Benchmark
+    public void customSemaphore() throws InterruptedException {
+        custom.acquire();
+        custom.release();
+    }
+
+    @Benchmark
+    public void jdkSemaphore() throws InterruptedException {
+        jdk.acquire();
+        jdk.release();
+    }
+}
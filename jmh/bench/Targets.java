@@ -0,0 +1,61 @@
+package bench;
+
+//JMH refuses benchmarks in the default package and a named package can not import the simulation classes,
+//so the benchmarks reach them through this interface. BenchmarkTargets (default package, next to the bench folder)
+//implements it and is loaded once per trial, the measured calls are plain interface calls.
+public interface Targets {
+
+    //CircularBuffer, the non-blocking calls so an unbalanced producer/consumer group can not hang at the end of an iteration
+    interface Channel {
+        boolean offer(Object item);
+
+        Object poll();
+    }
+
+    //CustomSemaphore
+    interface Permits {
+        void acquire() throws InterruptedException;
+
+        void release();
+    }
+
+    //BoundedQueue
+    interface Tables {
+        int seat(Object occupant);
+
+        void vacate(int tableIndex);
+    }
+
+    //Order, the chef side marks the order as started and the customer side waits for it
+    interface Signal {
+        Object newOrder();
+
+        void markStarted(Object order);
+
+        int awaitStarted(Object order);
+    }
+
+    Channel circularBuffer(int capacity);
+
+    Permits customSemaphore(int permits);
+
+    Tables boundedQueue(int tables, int sections);
+
+    Signal order();
+
+    //writes the catalog (configuration and meals) that the generated workloads are drawn from
+    void writeCatalog(String catalogFile) throws Exception;
+
+    //writes a generated input file with the given number of customers
+    void writeWorkload(String catalogFile, String inputFile, long customers, long seed) throws Exception;
+
+    //reads the whole input file and returns the number of customers
+    long parse(String inputFile) throws Exception;
+
+    //runs the event engine on customers generated from the catalog and returns the number of customers served
+    long simulate(String catalogFile, long customers, long seed);
+
+    static Targets load() throws ReflectiveOperationException {
+        return (Targets) Class.forName("BenchmarkTargets").getDeclaredConstructor().newInstance();
+    }
+}
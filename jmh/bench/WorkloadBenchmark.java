@@ -0,0 +1,65 @@
+package bench;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+//Whole runs on generated workloads: reading an input file of that many customers,
+//and the simulation (event engine, no output file) of that many generated customers.
+//Every run is the same scenario (fixed seed), so the scores of two versions can be compared.
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgs = {"-Xmx2g"})
+@State(Scope.Benchmark)
+public class WorkloadBenchmark {
+    private static final long SEED = 42;
+
+    @Param({"1000", "100000", "1000000"})
+    long customers;
+
+    private Targets targets;
+    private Path directory;
+    private String catalogFile;
+    private String inputFile;
+
+    @Setup
+    public void setUp() throws Exception {
+        targets = Targets.load();
+        directory = Files.createTempDirectory("restaurant-benchmark");
+        catalogFile = directory.resolve("catalog.txt").toString();
+        inputFile = directory.resolve("input.txt").toString();
+        targets.writeCatalog(catalogFile);
+        targets.writeWorkload(catalogFile, inputFile, customers, SEED);
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        Files.deleteIfExists(Path.of(inputFile));
+        Files.deleteIfExists(Path.of(catalogFile));
+        Files.deleteIfExists(directory);
+    }
+
+    @Benchmark
+    public long parseInput() throws Exception {
+        return targets.parse(inputFile);
+    }
+
+    @Benchmark
+    public long simulate() {
+        return targets.simulate(catalogFile, customers, SEED);
+    }
+}
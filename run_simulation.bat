@@ -1,3 +1,6 @@
 @echo off
-java -jar RestaurantSimulation.jar
-pause
\ No newline at end of file
+call mvn -B -q package
+if errorlevel 1 goto end
+java -jar target\RestaurantSimulation.jar %*
+:end
+pause
@@ -0,0 +1,563 @@
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+//This class is a stress harness for the concurrency primitives of the simulation (in the spirit of jcstress, but a plain main).
+//Every scenario runs many rounds, a round draws its thread counts, capacities and workload from its own seed and every
+//worker pauses at random points (yield, spin or a short park) so the rounds hit different interleavings.
+//After each round the invariants are checked: no lost items or orders, nothing taken or served twice, no more holders
+//than permits, and every worker (including the ones blocked on an empty queue) exits after endShift within the deadline.
+//A stuck round prints the stacks of the stuck workers and the seed to repeat it.
+//
+//Run it with: mvn -Pstress verify -Dstress.args="--rounds=5000 --seed=42"
+//Options: --rounds=N (per scenario, default 1000), --seed=N, --timeout=SECONDS (per round, default 10), --scenario=NAME
+class ConcurrencyStress {
+
+    //One scenario, it starts its workers through the round and reports broken invariants with round.fail()
+    interface Scenario {
+        void run(Round round) throws InterruptedException;
+    }
+
+    //A round thrown out of a scenario when a worker does not exit in time, the round is abandoned
+    private static final class StuckException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        StuckException(String message) {
+            super(message);
+        }
+    }
+
+    //Global variables --------------------------------------------------------------
+    private static final Map<String, Scenario> SCENARIOS = new LinkedHashMap<>();
+
+    static {
+        SCENARIOS.put("circular-buffer", ConcurrencyStress::circularBuffer);
+        SCENARIOS.put("order-queue", ConcurrencyStress::orderQueue);
+        SCENARIOS.put("custom-semaphore", ConcurrencyStress::customSemaphore);
+        SCENARIOS.put("semaphore-interrupt", ConcurrencyStress::semaphoreInterrupt);
+        SCENARIOS.put("bounded-queue", ConcurrencyStress::boundedQueue);
+        SCENARIOS.put("kitchen", ConcurrencyStress::kitchen);
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        int rounds = 1000;
+        long seed = System.nanoTime();
+        long timeoutSeconds = 10;
+        String only = null;
+        for (String arg : args) {
+            String[] option = arg.split("=", 2);
+            switch (option[0]) {
+                case "--rounds" -> rounds = Integer.parseInt(option[1]);
+                case "--seed" -> seed = Long.parseLong(option[1]);
+                case "--timeout" -> timeoutSeconds = Long.parseLong(option[1]);
+                case "--scenario" -> only = option[1];
+                default -> System.err.println("Unknown option: " + arg);
+            }
+        }
+
+        System.out.println("Stress seed: " + seed + " (repeat with --seed=" + seed + ")");
+        int failedScenarios = 0;
+        for (Map.Entry<String, Scenario> scenario : SCENARIOS.entrySet()) {
+            if (only != null && !only.equals(scenario.getKey())) {
+                continue;
+            }
+            long start = System.nanoTime();
+            int failures = 0;
+            for (int r = 0; r < rounds; r++) {
+                long roundSeed = RandomStreams.replicationSeed(seed, r);
+                Round round = new Round(roundSeed, TimeUnit.SECONDS.toNanos(timeoutSeconds));
+                try {
+                    scenario.getValue().run(round);
+                } catch (StuckException e) {
+                    round.fail(e.getMessage());
+                } finally {
+                    round.abandon();
+                }
+                if (!round.failures.isEmpty()) {
+                    failures++;
+                    System.out.println(scenario.getKey() + " round " + r + " FAILED (" + round.describe() + ")");
+                    for (String failure : round.failures) {
+                        System.out.println("  " + failure);
+                    }
+                }
+            }
+            System.out.printf("%-20s %6d rounds %6d failed %8.1f s%n", scenario.getKey(), rounds, failures, (System.nanoTime() - start) / 1e9);
+            if (failures > 0) {
+                failedScenarios++;
+            }
+        }
+        if (failedScenarios > 0) {
+            System.out.println("Repeat a scenario with --seed=" + seed + " --scenario=NAME");
+            System.exit(1);
+        }
+    }
+
+    //Scenarios ----------------------------------------------------------------------
+    //Producers add numbered items to a small ring buffer, consumers take them one at a time or in batches.
+    //Every item must be taken exactly once and the consumers that are still waiting must leave after endShift.
+    private static void circularBuffer(Round round) throws InterruptedException {
+        int producers = round.between(1, 4);
+        int consumers = round.between(1, 4);
+        int capacity = round.between(1, 8);
+        int items = round.workload();
+        round.note("producers=" + producers + " consumers=" + consumers + " capacity=" + capacity + " items=" + items);
+
+        CircularBuffer<Integer> buffer = new CircularBuffer<>(capacity);
+        AtomicIntegerArray taken = new AtomicIntegerArray(producers * items);
+        List<Thread> producerThreads = new ArrayList<>();
+        for (int p = 0; p < producers; p++) {
+            int first = p * items;
+            producerThreads.add(round.start("producer-" + p, random -> {
+                for (int i = 0; i < items; i++) {
+                    buffer.add(first + i);
+                    jitter(random);
+                }
+            }));
+        }
+        List<Thread> consumerThreads = new ArrayList<>();
+        for (int c = 0; c < consumers; c++) {
+            consumerThreads.add(round.start("consumer-" + c, random -> {
+                Object[] batch = new Object[1 + random.nextInt(4)];
+                int count;
+                while ((count = buffer.removeBatch(batch)) > 0) {
+                    for (int i = 0; i < count; i++) {
+                        taken.incrementAndGet((Integer) batch[i]);
+                        batch[i] = null;
+                    }
+                    jitter(random);
+                }
+            }));
+        }
+
+        round.join(producerThreads);
+        buffer.endShift();
+        round.join(consumerThreads);
+        checkExactlyOnce(round, "item", taken);
+        if (!buffer.isEmpty()) {
+            round.fail("buffer is not empty after the consumers left");
+        }
+    }
+
+    //Customers place orders in an order queue (FIFO, SPT or SPT with aging, with batching and with several stations),
+    //chefs take them with removeBatch. Every order must be taken exactly once and a batch only holds one meal.
+    private static void orderQueue(Round round) throws InterruptedException {
+        int customers = round.between(1, 4);
+        int chefs = round.between(1, 4);
+        int orders = round.workload();
+        SchedulingPolicy policy = SchedulingPolicy.values()[round.between(0, SchedulingPolicy.values().length - 1)];
+        int batchSize = round.between(1, 3);
+        int stations = round.between(1, 3);
+        boolean stealing = round.random.nextBoolean();
+        round.note("customers=" + customers + " chefs=" + chefs + " orders=" + orders + " policy=" + policy
+                + " batch=" + batchSize + " stations=" + stations + " stealing=" + stealing);
+
+        KitchenLayout layout = kitchenLayout(stations, stealing);
+        OrderQueue queue = (layout.getStationCount() > 1)
+                ? new StationOrderQueue(layout, chefs, policy, orders + 1, 0.5, batchSize)
+                : OrderQueue.create(policy, orders + 1, 0.5, batchSize);
+        AtomicIntegerArray taken = new AtomicIntegerArray(customers * orders);
+        AtomicInteger mixedBatches = new AtomicInteger();
+
+        List<Thread> customerThreads = new ArrayList<>();
+        for (int c = 0; c < customers; c++) {
+            int first = c * orders;
+            customerThreads.add(round.start("customer-" + c, random -> {
+                for (int i = 0; i < orders; i++) {
+                    Order order = new Order(MEALS[random.nextInt(MEALS.length)], 1 + random.nextInt(20), first + i);
+                    order.setPlacedAt(i);
+                    queue.add(order);
+                    jitter(random);
+                }
+            }));
+        }
+        List<Thread> chefThreads = new ArrayList<>();
+        for (int c = 0; c < chefs; c++) {
+            OrderQueue chefQueue = (queue instanceof StationOrderQueue stationQueue) ? stationQueue.forChef(c + 1) : queue;
+            chefThreads.add(round.start("chef-" + c, random -> {
+                Order[] batch = new Order[batchSize];
+                int count;
+                while ((count = chefQueue.removeBatch(batch)) > 0) {
+                    String meal = batch[0].getMealName();
+                    for (int i = 0; i < count; i++) {
+                        taken.incrementAndGet(batch[i].getCustomerId());
+                        if (!batch[i].getMealName().equals(meal)) {
+                            mixedBatches.incrementAndGet();
+                        }
+                        batch[i] = null;
+                    }
+                    jitter(random);
+                }
+            }));
+        }
+
+        round.join(customerThreads);
+        queue.endShift();
+        round.join(chefThreads);
+        checkExactlyOnce(round, "order", taken);
+        if (mixedBatches.get() > 0) {
+            round.fail(mixedBatches.get() + " orders were cooked in a batch of another meal");
+        }
+    }
+
+    //Threads hold the semaphore for a moment at a time, there may never be more holders than permits
+    //and all permits must be back at the end
+    private static void customSemaphore(Round round) throws InterruptedException {
+        int threads = round.between(2, 6);
+        int permits = round.between(1, 3);
+        int iterations = round.workload();
+        round.note("threads=" + threads + " permits=" + permits + " iterations=" + iterations);
+
+        CustomSemaphore semaphore = new CustomSemaphore(permits);
+        AtomicInteger holders = new AtomicInteger();
+        AtomicInteger mostHolders = new AtomicInteger();
+        List<Thread> workers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            workers.add(round.start("worker-" + t, random -> {
+                for (int i = 0; i < iterations; i++) {
+                    semaphore.acquire();
+                    int now = holders.incrementAndGet();
+                    mostHolders.accumulateAndGet(now, Math::max);
+                    jitter(random);
+                    holders.decrementAndGet();
+                    semaphore.release();
+                }
+            }));
+        }
+
+        round.join(workers);
+        if (mostHolders.get() > permits) {
+            round.fail(mostHolders.get() + " threads held the semaphore at the same time, it has " + permits + " permits");
+        }
+        if (semaphore.getCurrentPermits() != permits) {
+            round.fail(semaphore.getCurrentPermits() + " permits left, expected " + permits);
+        }
+    }
+
+    //Threads wait on a semaphore without permits and are interrupted at a random point, an interrupted thread must leave
+    //with the InterruptedException and must not take a permit that is released later
+    private static void semaphoreInterrupt(Round round) throws InterruptedException {
+        int threads = round.between(1, 4);
+        round.note("threads=" + threads);
+
+        CustomSemaphore semaphore = new CustomSemaphore(0);
+        AtomicInteger acquired = new AtomicInteger();
+        AtomicInteger interrupted = new AtomicInteger();
+        List<Thread> workers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            workers.add(round.start("waiter-" + t, random -> {
+                try {
+                    semaphore.acquire();
+                    acquired.incrementAndGet();
+                } catch (InterruptedException e) {
+                    interrupted.incrementAndGet();
+                }
+            }));
+        }
+        jitter(round.random);
+        for (Thread worker : workers) {
+            worker.interrupt();
+        }
+        round.join(workers);
+        semaphore.release();
+
+        if (acquired.get() > 0) {
+            round.fail(acquired.get() + " interrupted threads acquired a semaphore without permits");
+        }
+        if (interrupted.get() != threads) {
+            round.fail(interrupted.get() + " of " + threads + " interrupted threads got the InterruptedException");
+        }
+        if (semaphore.getCurrentPermits() != 1) {
+            round.fail(semaphore.getCurrentPermits() + " permits left after one release, expected 1");
+        }
+    }
+
+    //Customers take a table, keep it for a moment and leave, no table may ever have two customers
+    //and every table must be free again at the end
+    private static void boundedQueue(Round round) throws InterruptedException {
+        int threads = round.between(2, 6);
+        int tables = round.between(1, 8);
+        int sections = round.between(1, 3);
+        int visits = round.workload();
+        round.note("threads=" + threads + " tables=" + tables + " sections=" + sections + " visits=" + visits);
+
+        BoundedQueue<Object> queue = new BoundedQueue<>(tables, sections);
+        AtomicIntegerArray seated = new AtomicIntegerArray(tables);
+        AtomicInteger doubleSeated = new AtomicInteger();
+        List<Thread> workers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            workers.add(round.start("customer-" + t, random -> {
+                Object customer = new Object();
+                for (int i = 0; i < visits; i++) {
+                    int table = queue.add(customer);
+                    if (seated.incrementAndGet(table) != 1) {
+                        doubleSeated.incrementAndGet();
+                    }
+                    jitter(random);
+                    seated.decrementAndGet(table);
+                    queue.remove(table);
+                }
+            }));
+        }
+
+        round.join(workers);
+        if (doubleSeated.get() > 0) {
+            round.fail(doubleSeated.get() + " customers were seated at an occupied table");
+        }
+        if (!queue.isEmpty()) {
+            round.fail(queue.size() + " tables are still occupied");
+        }
+        //every table must be free: seating one customer per table must not wait
+        round.join(List.of(round.start("check", random -> {
+            for (int i = 0; i < tables; i++) {
+                queue.add(new Object());
+            }
+        })));
+    }
+
+    //The whole kitchen: customers place orders and wait for them, chefs cook them in batches, waiters serve them with
+    //several plates per trip and hand orders off their route back. Every customer must get his order served exactly once
+    //by a waiter, and the chefs and waiters must all leave after endShift.
+    private static void kitchen(Round round) throws InterruptedException {
+        int customers = round.between(1, 12);
+        int chefs = round.between(1, 3);
+        int waiters = round.between(1, 3);
+        int visits = round.workload() / 8 + 1;
+        int batchSize = round.between(1, 3);
+        int plates = round.between(1, 3);
+        int stations = round.between(1, 2);
+        SchedulingPolicy policy = SchedulingPolicy.values()[round.between(0, SchedulingPolicy.values().length - 1)];
+        round.note("customers=" + customers + " chefs=" + chefs + " waiters=" + waiters + " visits=" + visits + " policy=" + policy
+                + " batch=" + batchSize + " plates=" + plates + " stations=" + stations);
+
+        KitchenLayout layout = kitchenLayout(stations, true);
+        OrderQueue orders = (layout.getStationCount() > 1)
+                ? new StationOrderQueue(layout, chefs, policy, customers, 0.5, batchSize)
+                : OrderQueue.create(policy, customers, 0.5, batchSize);
+        CircularBuffer<Order> readyOrders = new CircularBuffer<>(customers);
+        AtomicIntegerArray served = new AtomicIntegerArray(customers * visits);
+        AtomicInteger wrongWaiter = new AtomicInteger();
+
+        List<Thread> customerThreads = new ArrayList<>();
+        for (int c = 0; c < customers; c++) {
+            int first = c * visits;
+            int table = c + 1;
+            customerThreads.add(round.start("customer-" + c, random -> {
+                for (int i = 0; i < visits; i++) {
+                    Order order = new Order(MEALS[random.nextInt(MEALS.length)], 1 + random.nextInt(20), first + i);
+                    order.setTableIndex(table);
+                    order.setPlacedAt(i);
+                    orders.add(order);
+                    order.waitUntilOrderStart();
+                    order.waitUntilOrderReady();
+                    if (order.waitUntilOrderServed() == 0) {
+                        wrongWaiter.incrementAndGet();
+                    }
+                    jitter(random);
+                }
+            }));
+        }
+        List<Thread> staffThreads = new ArrayList<>();
+        for (int c = 0; c < chefs; c++) {
+            int chefId = c + 1;
+            OrderQueue chefOrders = (orders instanceof StationOrderQueue stationQueue) ? stationQueue.forChef(chefId) : orders;
+            staffThreads.add(round.start("chef-" + c, random -> {
+                Order[] batch = new Order[batchSize];
+                int count;
+                while ((count = chefOrders.removeBatch(batch)) > 0) {
+                    for (int i = 0; i < count; i++) {
+                        batch[i].setBatch(count, i);
+                        batch[i].markOrderStart(chefId);
+                    }
+                    jitter(random);
+                    for (int i = 0; i < count; i++) {
+                        batch[i].markOrderReady();
+                        readyOrders.add(batch[i]);
+                        batch[i] = null;
+                    }
+                }
+            }));
+        }
+        for (int w = 0; w < waiters; w++) {
+            int waiterId = w + 1;
+            staffThreads.add(round.start("waiter-" + w, random -> {
+                Object[] trip = new Object[plates];
+                int count;
+                while ((count = readyOrders.removeBatch(trip)) > 0) {
+                    int firstTable = ((Order) trip[0]).getTableIndex();
+                    for (int i = 0; i < count; i++) {
+                        Order order = (Order) trip[i];
+                        trip[i] = null;
+                        if (i > 0 && !Waiter.isOnRoute(firstTable, order.getTableIndex(), 2)) {
+                            readyOrders.add(order); //off the route, the next trip takes it
+                            continue;
+                        }
+                        jitter(random);
+                        served.incrementAndGet(order.getCustomerId());
+                        order.markOrderServed(waiterId);
+                    }
+                }
+            }));
+        }
+
+        round.join(customerThreads);
+        orders.endShift();
+        readyOrders.endShift();
+        round.join(staffThreads);
+        checkExactlyOnce(round, "order", served);
+        if (wrongWaiter.get() > 0) {
+            round.fail(wrongWaiter.get() + " orders were served without a waiter id");
+        }
+    }
+
+    //Helper methods --------------------------------------------------------------
+    private static final String[] MEALS = {"Burger", "Pizza", "Pasta", "Salad"};
+
+    //Burger and Pasta share the first station, Pizza and Salad the last one
+    private static KitchenLayout kitchenLayout(int stations, boolean stealing) {
+        Map<String, Integer> meals = new HashMap<>();
+        Map<String, String> mealStations = new LinkedHashMap<>();
+        for (int i = 0; i < MEALS.length; i++) {
+            meals.put(MEALS[i], 5 + i);
+            mealStations.put(MEALS[i], "station-" + (i % stations));
+        }
+        return new KitchenLayout(meals, mealStations, stealing);
+    }
+
+    private static void checkExactlyOnce(Round round, String what, AtomicIntegerArray counts) {
+        int lost = 0;
+        int duplicated = 0;
+        int firstBad = -1;
+        for (int i = 0; i < counts.length(); i++) {
+            int count = counts.get(i);
+            if (count != 1) {
+                if (count == 0) {
+                    lost++;
+                } else {
+                    duplicated++;
+                }
+                if (firstBad == -1) {
+                    firstBad = i;
+                }
+            }
+        }
+        if (lost > 0 || duplicated > 0) {
+            round.fail(lost + " " + what + "s lost, " + duplicated + " " + what + "s handled more than once (first: " + what + " " + firstBad + ")");
+        }
+    }
+
+    //A random pause of the calling thread, most of the time none, so the threads also run into each other at full speed
+    private static void jitter(SplittableRandom random) {
+        switch (random.nextInt(8)) {
+            case 0 -> Thread.yield();
+            case 1 -> {
+                for (int i = random.nextInt(200); i > 0; i--) {
+                    Thread.onSpinWait();
+                }
+            }
+            case 2 -> LockSupport.parkNanos(1_000 + random.nextInt(20_000));
+            default -> {
+            }
+        }
+    }
+
+    //The threads, the random streams and the results of one round
+    private static final class Round {
+        //A worker body, it may wait (InterruptedException ends the worker)
+        interface Body {
+            void run(SplittableRandom random) throws InterruptedException;
+        }
+
+        private final SplittableRandom random;
+        private final long deadline;
+        private final List<Thread> threads = new ArrayList<>();
+        private final List<String> failures = new ArrayList<>();
+        private final StringBuilder notes = new StringBuilder();
+        private final AtomicLong workerErrors = new AtomicLong();
+
+        Round(long seed, long timeoutNanos) {
+            this.random = new SplittableRandom(seed);
+            this.deadline = System.nanoTime() + timeoutNanos;
+        }
+
+        int between(int min, int max) {
+            return min + random.nextInt(max - min + 1);
+        }
+
+        //Mostly a hundred or two operations per thread, sometimes none or a handful, so threads also block on an empty queue at endShift
+        int workload() {
+            return (random.nextInt(4) == 0) ? random.nextInt(3) : 20 + random.nextInt(180);
+        }
+
+        void note(String text) {
+            notes.append(text);
+        }
+
+        String describe() {
+            return notes.toString();
+        }
+
+        void fail(String failure) {
+            failures.add(failure);
+        }
+
+        //This method starts a daemon worker with its own random stream, an exception in the worker fails the round
+        Thread start(String name, Body body) {
+            SplittableRandom workerRandom = random.split();
+            Thread thread = new Thread(() -> {
+                try {
+                    body.run(workerRandom);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } catch (RuntimeException e) {
+                    workerErrors.incrementAndGet();
+                    synchronized (failures) {
+                        failures.add(Thread.currentThread().getName() + " threw " + e);
+                    }
+                }
+            }, name);
+            thread.setDaemon(true);
+            threads.add(thread);
+            thread.start();
+            return thread;
+        }
+
+        //This method waits for the workers until the deadline of the round, a worker that is still alive then is stuck
+        void join(List<Thread> workers) throws InterruptedException {
+            for (Thread worker : workers) {
+                long remaining = deadline - System.nanoTime();
+                if (remaining > 0) {
+                    TimeUnit.NANOSECONDS.timedJoin(worker, remaining);
+                }
+            }
+            StringBuilder stuck = new StringBuilder();
+            for (Thread worker : workers) {
+                if (worker.isAlive()) {
+                    stuck.append("\n    ").append(worker.getName()).append(" did not exit (").append(worker.getState()).append(")");
+                    for (StackTraceElement frame : worker.getStackTrace()) {
+                        stuck.append("\n        at ").append(frame);
+                    }
+                }
+            }
+            if (stuck.length() > 0) {
+                throw new StuckException("stuck workers:" + stuck);
+            }
+        }
+
+        //This method interrupts the workers that are still running, so a stuck round does not keep spinning in the next ones
+        void abandon() {
+            for (Thread thread : threads) {
+                if (thread.isAlive()) {
+                    thread.interrupt();
+                }
+            }
+        }
+    }
+}